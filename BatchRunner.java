@@ -0,0 +1,643 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+// Headless mode for DataStructureCalculator. Reads one operation per line from a
+// script file (or stdin) and runs them back to back with buffered output.
+//
+// Script commands (words are case-insensitive, lines starting with '#' are comments):
+//   load <n1> <n2> ...        append numbers to the shared inputs
+//   clear | show              empty / print the shared inputs
+//   map <file> | unmap        use a binary file of little-endian doubles (read-only)
+//                             instead of the inputs for array, list and queue; not
+//                             available to server clients, which cannot name server files
+//   array <op> [x]            reset, display, dump, sum, average, min, max, variance, sort, search x,
+//                             kth k (1 = smallest), median, percentile p, top k, bottom k
+//   list <op> [x] [pos]       reset, display, dump, addfirst x, addlast x, add x pos,
+//                             removefirst, removelast, remove pos, search x
+//   queue <op> [x]            reset, display, dump, enqueue x, dequeue, peek, shrink n, rotate n,
+//                             capacity n (0 for unbounded)
+//   calc <op> <a> <b> [store] add, sub, mul, div; operands are numbers or #index into
+//                             the inputs; 'store' appends the result to the inputs
+//   eval <mode> <expression>  evaluate over every value (see Expression); mode is show,
+//                             replace (results become the inputs) or append
+//   slot <op> [name]          save name (the inputs, O(1)), show name, drop name, list
+//   vec <op> <a> <b> <dest>   add, sub, mul, div element-wise (x/0 gives NaN); scale <a> <factor> <dest>.
+//                             Operands are slot names or 'inputs'; dest is a slot or 'inputs'
+//   stats [on|off|reset]      latency per operation (see OperationMetrics); off by default
+//
+// 'display' shows the first and last values of large structures; 'dump' prints all.
+// The array, list and queue work on their own copy of the inputs, taken the first
+// time they are used or on 'reset', just like entering the interactive sub-menus.
+public class BatchRunner {
+
+    private static final int OUTPUT_BUFFER_SIZE = 1 << 16;
+    private static final int INITIAL_TOKENS = 16;
+    private static final int MAX_CACHED_EXPRESSIONS = 256;
+
+    private final SharedDataset inputs;
+    private final boolean fileAccess; // Whether 'map' may open files on this machine
+    private MappedDataset mappedDataset;
+    private final PrintWriter out;
+    private String[] tokens = new String[INITIAL_TOKENS]; // Grows to the longest line seen
+    private final Map<String, Expression> expressions = new HashMap<>(); // Compiled once per distinct text
+    private final DatasetSlots slots = new DatasetSlots(); // Named datasets of this session
+
+    private DoubleSource currentArray;
+    private ChunkedDoubleList currentList;
+    private DoubleRingQueue currentQueue;
+
+    private long operations;
+    private long errors;
+
+    public BatchRunner(SharedDataset inputs, PrintWriter out) {
+        this(inputs, out, true);
+    }
+
+    // fileAccess false for sessions driven from outside, such as server clients
+    public BatchRunner(SharedDataset inputs, PrintWriter out, boolean fileAccess) {
+        this.inputs = inputs;
+        this.out = out;
+        this.fileAccess = fileAccess;
+    }
+
+    // Entry point used by DataStructureCalculator.main for "--batch [file]"; with a
+    // store (--data-dir) the script starts from, and saves to, the persisted inputs
+    public static void runScript(String path, DatasetStore store) {
+        PrintWriter out = new PrintWriter(new BufferedWriter(new OutputStreamWriter(System.out), OUTPUT_BUFFER_SIZE), false);
+        BatchRunner runner = new BatchRunner(store != null ? new SharedDataset(store) : new SharedDataset(), out);
+        try (BufferedReader in = (path == null || path.equals("-"))
+                ? new BufferedReader(new InputStreamReader(System.in), OUTPUT_BUFFER_SIZE)
+                : new BufferedReader(new FileReader(path), OUTPUT_BUFFER_SIZE)) {
+            long start = System.nanoTime();
+            runner.run(in);
+            long elapsed = System.nanoTime() - start;
+            runner.printSummary(elapsed);
+        } catch (IOException e) {
+            out.println("Error reading script: " + e.getMessage());
+        } finally {
+            out.flush();
+        }
+    }
+
+    public void run(BufferedReader in) throws IOException {
+        String line;
+        long lineNumber = 0;
+        while ((line = in.readLine()) != null) {
+            lineNumber++;
+            executeLine(line, lineNumber);
+        }
+    }
+
+    // Runs one script line; errors are reported to the output and counted, not thrown
+    public boolean executeLine(String line, long lineNumber) {
+        try {
+            int count = tokenize(line);
+            if (count == 0) return true;
+            execute(count);
+            operations++;
+            return true;
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | UncheckedIOException e) {
+            errors++;
+            out.println("Line " + lineNumber + ": " + e.getMessage());
+            return false;
+        }
+    }
+
+    public void printSummary(long elapsedNanos) {
+        double seconds = elapsedNanos / 1_000_000_000.0;
+        double opsPerSecond = seconds > 0 ? operations / seconds : operations;
+        out.println("Executed " + operations + " operation(s) with " + errors + " error(s) in "
+                + String.format("%.3f", seconds) + " s (" + String.format("%.0f", opsPerSecond) + " ops/sec)");
+    }
+
+    public long getOperations() {
+        return operations;
+    }
+
+    public long getErrors() {
+        return errors;
+    }
+
+    // Splits on whitespace into the reusable token array; comment lines give no tokens
+    private int tokenize(String line) {
+        int count = 0;
+        int length = line.length();
+        int i = 0;
+        while (i < length) {
+            while (i < length && Character.isWhitespace(line.charAt(i))) i++;
+            if (i >= length || (count == 0 && line.charAt(i) == '#')) break;
+            int start = i;
+            while (i < length && !Character.isWhitespace(line.charAt(i))) i++;
+            if (count == tokens.length) {
+                tokens = Arrays.copyOf(tokens, tokens.length * 2);
+            }
+            tokens[count++] = line.substring(start, i);
+        }
+        return count;
+    }
+
+    private void execute(int count) {
+        String command = tokens[0].toLowerCase();
+        switch (command) {
+            case "load":
+                double[] values = new double[count - 1];
+                for (int i = 1; i < count; i++) {
+                    values[i - 1] = parseDouble(tokens[i]);
+                }
+                inputs.addAll(values, 0, values.length); // One publish for the whole line
+                break;
+            case "clear":
+                inputs.clear();
+                break;
+            case "show":
+                out.println("Initial numbers: " + inputs);
+                break;
+            case "map":
+            case "unmap":
+                if (!fileAccess) {
+                    throw new IllegalArgumentException("'" + command + "' is not available in server sessions.");
+                }
+                if (command.equals("unmap")) {
+                    mappedDataset = null;
+                    break;
+                }
+                try {
+                    mappedDataset = MappedDataset.open(Paths.get(argument(count, 1)));
+                } catch (IOException e) {
+                    throw new IllegalArgumentException("Error loading dataset: " + e.getMessage());
+                }
+                out.println("Mapped " + mappedDataset.size() + " values.");
+                break;
+            case "array":
+                executeArray(count);
+                break;
+            case "list":
+                executeList(count);
+                break;
+            case "queue":
+                executeQueue(count);
+                break;
+            case "calc":
+                executeCalc(count);
+                break;
+            case "eval":
+                executeEval(count);
+                break;
+            case "slot":
+                executeSlot(count);
+                break;
+            case "vec":
+                executeVector(count);
+                break;
+            case "stats":
+                executeStats(count);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown command '" + tokens[0] + "'.");
+        }
+    }
+
+    private void executeArray(int count) {
+        String op = operation(count);
+        long started = OperationMetrics.start();
+        if (currentArray == null || op.equals("reset")) {
+            currentArray = mappedDataset != null ? mappedDataset : inputs.snapshot().toDoubleArray();
+        }
+        switch (op) {
+            case "reset":
+                break;
+            case "display":
+                out.println("Array: " + currentArray);
+                break;
+            case "dump":
+                dump(currentArray);
+                break;
+            case "sum":
+                requireNotEmpty(currentArray.isEmpty(), "Array");
+                out.println("Sum of elements: " + currentArray.getSum());
+                break;
+            case "average":
+                requireNotEmpty(currentArray.isEmpty(), "Array");
+                out.println("Average of elements: " + String.format("%.2f", currentArray.getAverage()));
+                break;
+            case "min":
+                requireNotEmpty(currentArray.isEmpty(), "Array");
+                out.println("Minimum element: " + currentArray.getMin());
+                break;
+            case "max":
+                requireNotEmpty(currentArray.isEmpty(), "Array");
+                out.println("Maximum element: " + currentArray.getMax());
+                break;
+            case "variance":
+                requireNotEmpty(currentArray.isEmpty(), "Array");
+                out.println("Variance: " + String.format("%.4f", currentArray.getVariance())
+                        + ", standard deviation: " + String.format("%.4f", currentArray.getStandardDeviation()));
+                break;
+            case "sort":
+                if (!(currentArray instanceof DoubleArray)) {
+                    currentArray = DoubleArray.copyOf(currentArray);
+                }
+                ((DoubleArray) currentArray).sort();
+                out.println("Array sorted.");
+                break;
+            case "kth": {
+                requireNotEmpty(currentArray.isEmpty(), "Array");
+                int k = parseInt(argument(count, 2));
+                if (k < 1 || k > currentArray.size()) {
+                    throw new IllegalArgumentException("k must be between 1 and " + currentArray.size() + ".");
+                }
+                out.println(k + "-th smallest element: " + OrderStatistics.select(currentArray, k - 1));
+                break;
+            }
+            case "median":
+                requireNotEmpty(currentArray.isEmpty(), "Array");
+                out.println("Median: " + OrderStatistics.median(currentArray));
+                break;
+            case "percentile": {
+                requireNotEmpty(currentArray.isEmpty(), "Array");
+                double percent = parseDouble(argument(count, 2));
+                out.println(percent + "th percentile: " + OrderStatistics.percentile(currentArray, percent));
+                break;
+            }
+            case "top":
+            case "bottom": {
+                requireNotEmpty(currentArray.isEmpty(), "Array");
+                int k = parseInt(argument(count, 2));
+                if (k < 1) {
+                    throw new IllegalArgumentException("k must be at least 1.");
+                }
+                double[] values = op.equals("top") ? OrderStatistics.top(currentArray, k) : OrderStatistics.bottom(currentArray, k);
+                out.println((op.equals("top") ? "Top " : "Bottom ") + values.length + ": " + DisplayWindow.format(values.length, i -> values[i]));
+                break;
+            }
+            case "search": {
+                double element = parseDouble(argument(count, 2));
+                int index = currentArray.indexOf(element);
+                out.println(index >= 0 ? element + " found at index: " + index : element + " not found in the array.");
+                break;
+            }
+            default:
+                throw new IllegalArgumentException("Unknown array operation '" + op + "'.");
+        }
+        OperationMetrics.stop("array", op, started, elementsTouched(op, currentArray.size()));
+    }
+
+    private void executeList(int count) {
+        String op = operation(count);
+        long started = OperationMetrics.start();
+        if (currentList == null || op.equals("reset")) {
+            currentList = ChunkedDoubleList.of(source());
+        }
+        switch (op) {
+            case "reset":
+                break;
+            case "display":
+                out.println("List: " + currentList);
+                break;
+            case "dump":
+                dump(currentList);
+                break;
+            case "addfirst":
+                currentList.addFirst(parseDouble(argument(count, 2)));
+                break;
+            case "addlast":
+                currentList.addLast(parseDouble(argument(count, 2)));
+                break;
+            case "add": {
+                double element = parseDouble(argument(count, 2));
+                int position = parseInt(argument(count, 3));
+                if (position < 0 || position > currentList.size()) {
+                    throw new IllegalArgumentException("Invalid position " + position + ".");
+                }
+                currentList.add(position, element);
+                break;
+            }
+            case "removefirst":
+                requireNotEmpty(currentList.isEmpty(), "List");
+                out.println("Removed from start: " + currentList.removeFirst());
+                break;
+            case "removelast":
+                requireNotEmpty(currentList.isEmpty(), "List");
+                out.println("Removed from end: " + currentList.removeLast());
+                break;
+            case "remove": {
+                int position = parseInt(argument(count, 2));
+                if (position < 0 || position >= currentList.size()) {
+                    throw new IllegalArgumentException("Invalid position " + position + ".");
+                }
+                out.println("Removed from position " + position + ": " + currentList.remove(position));
+                break;
+            }
+            case "search": {
+                double element = parseDouble(argument(count, 2));
+                int index = currentList.indexOf(element);
+                out.println(index >= 0 ? element + " found at index: " + index : element + " not found in the list.");
+                break;
+            }
+            default:
+                throw new IllegalArgumentException("Unknown list operation '" + op + "'.");
+        }
+        OperationMetrics.stop("list", op, started, elementsTouched(op, currentList.size()));
+    }
+
+    private void executeQueue(int count) {
+        String op = operation(count);
+        long started = OperationMetrics.start();
+        if (currentQueue == null || op.equals("reset")) {
+            currentQueue = DoubleRingQueue.of(source());
+        }
+        switch (op) {
+            case "reset":
+                break;
+            case "display":
+                out.println("Queue: " + currentQueue);
+                break;
+            case "dump":
+                dump(currentQueue);
+                break;
+            case "enqueue":
+                if (!currentQueue.offer(parseDouble(argument(count, 2)))) {
+                    throw new IllegalArgumentException("Queue is full (capacity " + currentQueue.getMaxCapacity() + ").");
+                }
+                break;
+            case "dequeue":
+                requireNotEmpty(currentQueue.isEmpty(), "Queue");
+                out.println("Dequeued: " + currentQueue.poll());
+                break;
+            case "peek":
+                requireNotEmpty(currentQueue.isEmpty(), "Queue");
+                out.println("Front element (peek): " + currentQueue.peek());
+                break;
+            case "shrink":
+                out.println(currentQueue.shrink(parseInt(argument(count, 2))) + " element(s) removed.");
+                break;
+            case "rotate":
+                currentQueue.rotate(parseInt(argument(count, 2)));
+                break;
+            case "capacity": {
+                int maxCapacity = parseInt(argument(count, 2));
+                if (!currentQueue.setMaxCapacity(maxCapacity)) {
+                    throw new IllegalArgumentException("Invalid capacity " + maxCapacity + " for a queue of size " + currentQueue.size() + ".");
+                }
+                break;
+            }
+            default:
+                throw new IllegalArgumentException("Unknown queue operation '" + op + "'.");
+        }
+        OperationMetrics.stop("queue", op, started, elementsTouched(op, currentQueue.size()));
+    }
+
+    private void executeCalc(int count) {
+        String op = operation(count);
+        long started = OperationMetrics.start();
+        double num1 = operand(argument(count, 2));
+        double num2 = operand(argument(count, 3));
+        double result;
+        String symbol;
+        switch (op) {
+            case "add":
+                result = num1 + num2;
+                symbol = " + ";
+                break;
+            case "sub":
+                result = num1 - num2;
+                symbol = " - ";
+                break;
+            case "mul":
+                result = num1 * num2;
+                symbol = " * ";
+                break;
+            case "div":
+                if (num2 == 0) {
+                    throw new IllegalArgumentException("Division by zero is not allowed.");
+                }
+                result = num1 / num2;
+                symbol = " / ";
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown calculator operation '" + op + "'.");
+        }
+        out.println(num1 + symbol + num2 + " = " + result);
+        if (count > 4 && tokens[4].equalsIgnoreCase("store")) {
+            inputs.add(result);
+        }
+        OperationMetrics.stop("calc", op, started, 2);
+    }
+
+    private void executeEval(int count) {
+        String mode = operation(count);
+        if (!mode.equals("show") && !mode.equals("replace") && !mode.equals("append")) {
+            throw new IllegalArgumentException("Unknown eval mode '" + mode + "'.");
+        }
+        argument(count, 2);
+        StringBuilder text = new StringBuilder();
+        for (int i = 2; i < count; i++) {
+            if (i > 2) text.append(' ');
+            text.append(tokens[i]);
+        }
+        Expression expression = expressions.get(text.toString());
+        if (expression == null) {
+            expression = Expression.compile(text.toString());
+            if (expressions.size() == MAX_CACHED_EXPRESSIONS) expressions.clear();
+            expressions.put(expression.getText(), expression);
+        }
+        long started = OperationMetrics.start();
+        double[] results = expression.evaluate(source());
+        OperationMetrics.stop("calc", "eval", started, results.length);
+        switch (mode) {
+            case "show":
+                DoubleArray shown = new DoubleArray(0);
+                shown.replaceAll(results, results.length);
+                out.println("Results: " + shown);
+                break;
+            case "replace":
+                inputs.replaceAll(results, results.length);
+                break;
+            default:
+                inputs.addAll(results, 0, results.length);
+        }
+    }
+
+    private void executeSlot(int count) {
+        String op = operation(count);
+        switch (op) {
+            case "save":
+                slots.put(argument(count, 2), source());
+                break;
+            case "show":
+                out.println(argument(count, 2) + ": " + slots.get(argument(count, 2)));
+                break;
+            case "drop":
+                if (!slots.remove(argument(count, 2))) {
+                    throw new IllegalArgumentException("No dataset named '" + tokens[2] + "'.");
+                }
+                break;
+            case "list":
+                out.println(slots);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown slot operation '" + op + "'.");
+        }
+    }
+
+    private void executeVector(int count) {
+        String op = operation(count);
+        DoubleSource a = dataset(argument(count, 2));
+        String destination = argument(count, 4);
+        long started = OperationMetrics.start();
+        double[] values;
+        if (op.equals("scale")) {
+            values = VectorMath.scale(a, parseDouble(argument(count, 3)));
+        } else {
+            VectorMath.Operator operator;
+            switch (op) {
+                case "add":
+                    operator = VectorMath.Operator.ADD;
+                    break;
+                case "sub":
+                    operator = VectorMath.Operator.SUBTRACT;
+                    break;
+                case "mul":
+                    operator = VectorMath.Operator.MULTIPLY;
+                    break;
+                case "div":
+                    operator = VectorMath.Operator.DIVIDE;
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown vector operation '" + op + "'.");
+            }
+            VectorMath.Result result = VectorMath.apply(operator, a, dataset(argument(count, 3)));
+            values = result.getValues();
+            if (result.getDivisionsByZero() > 0) {
+                out.println(result.getDivisionsByZero() + " division(s) by zero set to NaN.");
+            }
+        }
+        OperationMetrics.stop("vec", op, started, values.length);
+        if (destination.equalsIgnoreCase(DatasetSlots.INPUTS)) {
+            inputs.replaceAll(values, values.length);
+        } else {
+            DoubleArray stored = new DoubleArray(0);
+            stored.replaceAll(values, values.length);
+            slots.put(destination, stored);
+        }
+        out.println("Stored " + values.length + " values in " + destination + ".");
+        if (mappedDataset != null && destination.equalsIgnoreCase(DatasetSlots.INPUTS)) {
+            out.println("Note: the mapped dataset is still active; 'unmap' to use the inputs.");
+        }
+    }
+
+    // A slot, or the current inputs
+    private DoubleSource dataset(String name) {
+        return name.equalsIgnoreCase(DatasetSlots.INPUTS) ? source() : slots.get(name);
+    }
+
+    private void executeStats(int count) {
+        String action = count > 1 ? operation(count) : "show";
+        switch (action) {
+            case "show":
+                out.println(OperationMetrics.report());
+                break;
+            case "on":
+                OperationMetrics.setEnabled(true);
+                out.println("Recording operation metrics.");
+                break;
+            case "off":
+                OperationMetrics.setEnabled(false);
+                out.println("Operation metrics off.");
+                break;
+            case "reset":
+                OperationMetrics.reset();
+                out.println("Operation metrics cleared.");
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown stats action '" + action + "'.");
+        }
+    }
+
+    // Values an operation covers, for OperationMetrics: one for single-element
+    // updates, the visible window for display, the whole structure otherwise
+    private static long elementsTouched(String op, int size) {
+        switch (op) {
+            case "addfirst":
+            case "addlast":
+            case "add":
+            case "removefirst":
+            case "removelast":
+            case "remove":
+            case "enqueue":
+            case "dequeue":
+            case "peek":
+                return 1;
+            case "capacity":
+                return 0;
+            case "display":
+                return Math.min(size, DisplayWindow.LIMIT);
+            default:
+                return size;
+        }
+    }
+
+    private void dump(DoubleSequence values) {
+        try {
+            DisplayWindow.dump(values, out);
+        } catch (IOException e) {
+            throw new IllegalStateException(e); // PrintWriter does not throw
+        }
+    }
+
+    private DoubleSource source() {
+        return mappedDataset != null ? mappedDataset : inputs.snapshot();
+    }
+
+    // --- Token Helpers ---
+    private String operation(int count) {
+        return argument(count, 1).toLowerCase();
+    }
+
+    private String argument(int count, int index) {
+        if (index >= count) {
+            throw new IllegalArgumentException("Missing argument for '" + tokens[0] + (count > 1 ? " " + tokens[1] : "") + "'.");
+        }
+        return tokens[index];
+    }
+
+    // A number, or #i for the i-th (0-indexed) value of the inputs
+    private double operand(String token) {
+        if (token.startsWith("#")) {
+            return inputs.snapshot().get(parseInt(token.substring(1)));
+        }
+        return parseDouble(token);
+    }
+
+    private static void requireNotEmpty(boolean empty, String type) {
+        if (empty) {
+            throw new IllegalArgumentException(type + " is empty.");
+        }
+    }
+
+    private static double parseDouble(String token) {
+        try {
+            return Double.parseDouble(token);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid number '" + token + "'.");
+        }
+    }
+
+    private static int parseInt(String token) {
+        try {
+            return Integer.parseInt(token);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid integer '" + token + "'.");
+        }
+    }
+}
@@ -0,0 +1,138 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.lang.reflect.Method;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+// Local socket server for DataStructureCalculator ("--server [port]"). Every client
+// speaks the BatchRunner script language, one command per line; each response ends
+// with a line holding a single '.', and 'quit' closes the connection.
+//
+// All sessions share one SharedDataset (load, clear, calc ... store, eval replace),
+// while the array, list and queue of a session are its own copies, as in the
+// console. 'stats' reports operation metrics across all sessions. Each connection
+// gets a virtual thread when the JDK has them (21+), otherwise a pooled platform
+// thread.
+public class CalculatorServer implements Closeable {
+
+    public static final int DEFAULT_PORT = 5050;
+    static final String END_OF_RESPONSE = ".";
+    private static final int BUFFER_SIZE = 1 << 13;
+
+    private final SharedDataset dataset;
+    private final ServerSocket serverSocket;
+    private final ExecutorService connections;
+    private final Set<Socket> clients = ConcurrentHashMap.newKeySet(); // Open connections, closed by close()
+
+    // Binds to the loopback interface; port 0 picks a free one
+    public CalculatorServer(SharedDataset dataset, int port) throws IOException {
+        this.dataset = dataset;
+        this.serverSocket = new ServerSocket(port, 512, InetAddress.getLoopbackAddress());
+        this.connections = newConnectionExecutor();
+    }
+
+    // Entry point used by DataStructureCalculator.main for "--server [port]"
+    public static void runServer(int port, DatasetStore store) {
+        OperationMetrics.configure();
+        SharedDataset dataset = store != null ? new SharedDataset(store) : new SharedDataset();
+        try (CalculatorServer server = new CalculatorServer(dataset, port)) {
+            System.out.println("Data Structure Calculator server listening on " + server.getAddress() + ". Press Ctrl+C to stop.");
+            server.serve();
+        } catch (IOException e) {
+            System.out.println("Error starting server: " + e.getMessage());
+        }
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    public String getAddress() {
+        return serverSocket.getInetAddress().getHostAddress() + ":" + getPort();
+    }
+
+    public SharedDataset getDataset() {
+        return dataset;
+    }
+
+    // Accepts connections until close() is called
+    public void serve() throws IOException {
+        while (!serverSocket.isClosed()) {
+            Socket socket;
+            try {
+                socket = serverSocket.accept();
+            } catch (SocketException e) {
+                if (serverSocket.isClosed()) return; // Closed while waiting
+                throw e;
+            }
+            clients.add(socket);
+            connections.execute(() -> handle(socket));
+        }
+    }
+
+    private void handle(Socket socket) {
+        try (Socket client = socket;
+             BufferedReader in = new BufferedReader(new InputStreamReader(client.getInputStream(), StandardCharsets.UTF_8), BUFFER_SIZE);
+             PrintWriter out = new PrintWriter(new BufferedWriter(new OutputStreamWriter(client.getOutputStream(), StandardCharsets.UTF_8), BUFFER_SIZE), false)) {
+            client.setTcpNoDelay(true);
+            BatchRunner session = new BatchRunner(dataset, out, false); // No 'map' of server-side files
+            out.println("Data Structure Calculator server. Send 'quit' to disconnect.");
+            out.println(END_OF_RESPONSE);
+            out.flush();
+            String line;
+            long lineNumber = 0;
+            while ((line = in.readLine()) != null) {
+                if (line.trim().equalsIgnoreCase("quit")) break;
+                session.executeLine(line, ++lineNumber);
+                out.println(END_OF_RESPONSE);
+                out.flush();
+            }
+        } catch (IOException e) {
+            // The client went away; nothing to report back to
+        } finally {
+            clients.remove(socket);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        for (Socket client : clients) {
+            try {
+                client.close(); // Unblocks the session's read
+            } catch (IOException e) {
+                // Already closing
+            }
+        }
+        connections.shutdownNow();
+        try {
+            connections.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Executors.newVirtualThreadPerTaskExecutor() is looked up reflectively so the
+    // code still compiles and runs on JDKs before 21
+    private static ExecutorService newConnectionExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool();
+        }
+    }
+}
@@ -0,0 +1,389 @@
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+// Unrolled list of primitive doubles: the values live in fixed-size blocks, and a
+// spine array holds the blocks in order. Finding a position walks the spine
+// (n/B steps) and inserting or removing shifts values inside one block (B steps),
+// so positional edits cost about O(sqrt n) when B is close to sqrt n. Each block
+// keeps free room at both ends and the spine has room at the front, so addFirst
+// and addLast are O(1).
+//
+// A list made with of() starts as a view of its (read-only) source: the spine is
+// laid out on first use and each block copies its values only when it is first
+// written to, so entering the list menu is O(1) and an edit copies one block.
+public class ChunkedDoubleList implements DoubleSequence {
+
+    private static final int MIN_BLOCK_CAPACITY = 64;
+    private static final int MAX_BLOCK_CAPACITY = 4096;
+    private static final int INDEX_THRESHOLD = 64; // Smaller lists are just scanned
+
+    // --- Block Class ---
+    private static final class Block {
+        double[] values; // null until the first write; the values are then source[start, start + count)
+        int start;
+        int count;
+
+        Block(int capacity, int start) {
+            values = new double[capacity];
+            this.start = start;
+        }
+
+        private Block() {
+        }
+
+        // A block still backed by the source values [sourceStart, sourceStart + count)
+        static Block unwritten(int sourceStart, int count) {
+            Block block = new Block();
+            block.start = sourceStart;
+            block.count = count;
+            return block;
+        }
+    }
+    // --- End Block Class ---
+
+    private final int blockCapacity;
+    private Block[] spine = new Block[16];
+    private int spineHead = 8;
+    private int blockCount;
+    private int size;
+    private DoubleIndex index; // Built on the first search, then kept in step with edits
+    private DoubleSource source; // Backs the blocks that have not been written to
+    private boolean spineBuilt = true;
+
+    // Set by locate(): offset of the position inside the returned block
+    private int locatedOffset;
+
+    public ChunkedDoubleList() {
+        this(MIN_BLOCK_CAPACITY);
+    }
+
+    private ChunkedDoubleList(int blockCapacity) {
+        this.blockCapacity = blockCapacity;
+    }
+
+    // Block size is picked from the initial size so that both walks stay near sqrt n.
+    // A DoubleArray is snapshotted; other sources are read-only already.
+    public static ChunkedDoubleList of(DoubleSource values) {
+        int n = values.size();
+        int capacity = Integer.highestOneBit(Math.max((int) Math.sqrt(n), 1));
+        capacity = Math.max(MIN_BLOCK_CAPACITY, Math.min(MAX_BLOCK_CAPACITY, capacity));
+        ChunkedDoubleList list = new ChunkedDoubleList(capacity);
+        list.source = values instanceof DoubleArray ? ((DoubleArray) values).snapshot() : values;
+        list.size = n;
+        list.spineBuilt = false;
+        return list;
+    }
+
+    // One unwritten block per blockCapacity values of the source
+    private void ensureSpine() {
+        if (spineBuilt) return;
+        spineBuilt = true;
+        for (int from = 0; from < size; from += blockCapacity) {
+            insertBlock(blockCount, Block.unwritten(from, Math.min(blockCapacity, size - from)));
+        }
+    }
+
+    private double valueAt(Block block, int offset) {
+        return block.values != null ? block.values[block.start + offset] : source.get(block.start + offset);
+    }
+
+    // Gives a block its own array before it is written to
+    private void materialize(Block block) {
+        if (block.values != null) return;
+        double[] values = new double[blockCapacity];
+        source.copyTo(block.start, values, 0, block.count);
+        block.values = values;
+        block.start = 0;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public double get(int position) {
+        checkIndex(position, size);
+        ensureSpine();
+        Block block = spine[spineHead + locate(position)];
+        return valueAt(block, locatedOffset);
+    }
+
+    public void addFirst(double value) {
+        ensureSpine();
+        Block first = blockCount > 0 ? spine[spineHead] : null;
+        if (first == null || first.values == null || first.start == 0) {
+            first = new Block(blockCapacity, blockCapacity);
+            insertBlock(0, first);
+        }
+        first.start--;
+        first.values[first.start] = value;
+        first.count++;
+        size++;
+        if (index != null) index.addFirst(value);
+    }
+
+    public void addLast(double value) {
+        ensureSpine();
+        Block last = blockCount > 0 ? spine[spineHead + blockCount - 1] : null;
+        if (last == null || last.values == null || last.start + last.count == blockCapacity) {
+            last = new Block(blockCapacity, 0);
+            insertBlock(blockCount, last);
+        }
+        last.values[last.start + last.count] = value;
+        last.count++;
+        size++;
+        if (index != null) index.add(value, size - 1);
+    }
+
+    public void add(int position, double value) {
+        checkIndex(position, size + 1);
+        if (position == 0) {
+            addFirst(value);
+            return;
+        }
+        if (position == size) {
+            addLast(value);
+            return;
+        }
+        ensureSpine();
+        int blockIndex = locate(position);
+        int offset = locatedOffset;
+        Block block = spine[spineHead + blockIndex];
+        materialize(block);
+        if (block.count == blockCapacity) {
+            // Split the full block in half and insert into whichever half holds the position
+            int half = blockCapacity / 2;
+            Block upper = new Block(blockCapacity, 0);
+            upper.count = block.count - half;
+            System.arraycopy(block.values, block.start + half, upper.values, 0, upper.count);
+            block.count = half;
+            insertBlock(blockIndex + 1, upper);
+            if (offset > half) {
+                block = upper;
+                offset -= half;
+            }
+        }
+        int end = block.start + block.count;
+        if (end < blockCapacity && (block.start == 0 || offset >= block.count / 2)) {
+            System.arraycopy(block.values, block.start + offset, block.values, block.start + offset + 1, block.count - offset);
+        } else {
+            System.arraycopy(block.values, block.start, block.values, block.start - 1, offset);
+            block.start--;
+        }
+        block.values[block.start + offset] = value;
+        block.count++;
+        size++;
+        if (index != null) index.markStale();
+    }
+
+    public double removeFirst() {
+        checkIndex(0, size);
+        ensureSpine();
+        Block first = spine[spineHead];
+        double removed = valueAt(first, 0);
+        first.start++;
+        first.count--;
+        if (first.count == 0) removeBlock(0);
+        size--;
+        if (index != null) index.removeFirst(removed);
+        return removed;
+    }
+
+    public double removeLast() {
+        checkIndex(0, size);
+        ensureSpine();
+        Block last = spine[spineHead + blockCount - 1];
+        last.count--;
+        double removed = valueAt(last, last.count);
+        if (last.count == 0) removeBlock(blockCount - 1);
+        size--;
+        if (index != null) index.removeLast(removed, size);
+        return removed;
+    }
+
+    public double remove(int position) {
+        checkIndex(position, size);
+        if (position == 0) return removeFirst();
+        if (position == size - 1) return removeLast();
+        ensureSpine();
+        int blockIndex = locate(position);
+        int offset = locatedOffset;
+        Block block = spine[spineHead + blockIndex];
+        materialize(block);
+        double removed = block.values[block.start + offset];
+        if (offset < block.count / 2) {
+            System.arraycopy(block.values, block.start, block.values, block.start + 1, offset);
+            block.start++;
+        } else {
+            System.arraycopy(block.values, block.start + offset + 1, block.values, block.start + offset, block.count - offset - 1);
+        }
+        block.count--;
+        size--;
+        if (block.count == 0) {
+            removeBlock(blockIndex);
+        } else {
+            mergeWithNext(blockIndex);
+        }
+        if (index != null) index.markStale();
+        return removed;
+    }
+
+    // Same matching rules as LinkedList<Double>.indexOf (Double.equals compares the bit patterns)
+    public int indexOf(double value) {
+        ensureSpine();
+        if (size < INDEX_THRESHOLD) {
+            long bits = Double.doubleToLongBits(value);
+            int position = 0;
+            for (int b = 0; b < blockCount; b++) {
+                Block block = spine[spineHead + b];
+                for (int i = 0; i < block.count; i++, position++) {
+                    if (Double.doubleToLongBits(valueAt(block, i)) == bits) return position;
+                }
+            }
+            return -1;
+        }
+        if (index == null || index.isStale()) {
+            index = buildIndex();
+        }
+        return index.firstIndexOf(value);
+    }
+
+    private DoubleIndex buildIndex() {
+        DoubleIndex built = new DoubleIndex(size);
+        int position = 0;
+        for (int b = 0; b < blockCount; b++) {
+            Block block = spine[spineHead + b];
+            for (int i = 0; i < block.count; i++) {
+                built.add(valueAt(block, i), position++);
+            }
+        }
+        return built;
+    }
+
+    // Returns the block holding position and stores the offset inside it in locatedOffset
+    private int locate(int position) {
+        if (position < size / 2) {
+            int b = 0;
+            while (position >= spine[spineHead + b].count) {
+                position -= spine[spineHead + b].count;
+                b++;
+            }
+            locatedOffset = position;
+            return b;
+        }
+        int remaining = size - position;
+        int b = blockCount - 1;
+        while (remaining > spine[spineHead + b].count) {
+            remaining -= spine[spineHead + b].count;
+            b--;
+        }
+        locatedOffset = spine[spineHead + b].count - remaining;
+        return b;
+    }
+
+    // Folds a block into its successor when both together fit in half a block,
+    // so a run of removals cannot leave a long tail of nearly empty blocks
+    private void mergeWithNext(int blockIndex) {
+        if (blockIndex + 1 >= blockCount) return;
+        Block block = spine[spineHead + blockIndex];
+        Block next = spine[spineHead + blockIndex + 1];
+        if (block.count + next.count > blockCapacity / 2) return;
+        materialize(block);
+        System.arraycopy(block.values, block.start, block.values, 0, block.count);
+        if (next.values != null) {
+            System.arraycopy(next.values, next.start, block.values, block.count, next.count);
+        } else {
+            source.copyTo(next.start, block.values, block.count, next.count);
+        }
+        block.start = 0;
+        block.count += next.count;
+        removeBlock(blockIndex + 1);
+    }
+
+    private void insertBlock(int at, Block block) {
+        if (at == 0) {
+            if (spineHead == 0) recenterSpine();
+            spineHead--;
+            spine[spineHead] = block;
+        } else {
+            if (spineHead + blockCount == spine.length) recenterSpine();
+            int from = spineHead + at;
+            System.arraycopy(spine, from, spine, from + 1, blockCount - at);
+            spine[from] = block;
+        }
+        blockCount++;
+    }
+
+    private void removeBlock(int at) {
+        int from = spineHead + at;
+        if (at == 0) {
+            spine[from] = null;
+            spineHead++;
+        } else {
+            System.arraycopy(spine, from + 1, spine, from, blockCount - at - 1);
+            spine[spineHead + blockCount - 1] = null;
+        }
+        blockCount--;
+        if (blockCount == 0) spineHead = spine.length / 2;
+    }
+
+    // Moves the blocks to the middle of the spine, growing it when more than half full
+    private void recenterSpine() {
+        Block[] target = blockCount * 2 + 2 > spine.length ? new Block[spine.length * 2] : spine;
+        int newHead = (target.length - blockCount) / 2;
+        System.arraycopy(spine, spineHead, target, newHead, blockCount);
+        if (target == spine) {
+            // Clear the slots the move vacated
+            for (int i = 0; i < target.length; i++) {
+                if (i < newHead || i >= newHead + blockCount) target[i] = null;
+            }
+        }
+        spine = target;
+        spineHead = newHead;
+    }
+
+    private void checkIndex(int position, int limit) {
+        if (position < 0 || position >= limit) {
+            throw new IndexOutOfBoundsException("Index: " + position + ", Size: " + size);
+        }
+    }
+
+    // Walks the blocks directly; get() would locate every position from scratch
+    @Override
+    public PrimitiveIterator.OfDouble iterator() {
+        ensureSpine();
+        return new PrimitiveIterator.OfDouble() {
+            private int blockIndex;
+            private int offset;
+
+            @Override
+            public boolean hasNext() {
+                return blockIndex < blockCount;
+            }
+
+            @Override
+            public double nextDouble() {
+                if (blockIndex >= blockCount) {
+                    throw new NoSuchElementException();
+                }
+                double value = valueAt(spine[spineHead + blockIndex], offset);
+                Block block = spine[spineHead + blockIndex];
+                if (++offset == block.count) {
+                    blockIndex++;
+                    offset = 0;
+                }
+                return value;
+            }
+        };
+    }
+
+    @Override
+    public String toString() {
+        return DisplayWindow.format(this);
+    }
+}
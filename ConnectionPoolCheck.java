@@ -0,0 +1,154 @@
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+// Checks DatabaseApp's connection pool and table listing against an embedded H2
+// database, so they can be verified without a MySQL server.
+//
+//   java -cp .:h2.jar ConnectionPoolCheck
+//
+// Covers borrow and return, rollback of an unfinished transaction on return, the
+// timeout when every connection is in use, use of a connection after close(), and
+// the table list shown by the app. Prints one line per check and exits with status
+// 1 if any of them failed.
+public class ConnectionPoolCheck {
+
+    private static final String URL = "jdbc:h2:mem:testdb;DB_CLOSE_DELAY=-1";
+    private static final String USER = "sa";
+    private static final String PASSWORD = "";
+
+    private static int failures;
+
+    public static void main(String[] args) throws Exception {
+        // DBUtil reads these once, on first use
+        System.setProperty("db.url", URL);
+        System.setProperty("db.user", USER);
+        System.setProperty("db.password", PASSWORD);
+
+        checkBorrowAndReturn();
+        checkRollbackOnReturn();
+        checkTimeoutWhenExhausted();
+        checkUseAfterClose();
+        checkTableListing();
+
+        DatabaseApp.DBUtil.shutdown();
+        System.out.println(failures == 0 ? "All checks passed." : failures + " check(s) failed.");
+        if (failures > 0) {
+            System.exit(1);
+        }
+    }
+
+    private static void checkBorrowAndReturn() throws SQLException {
+        DatabaseApp.ConnectionPool pool = new DatabaseApp.ConnectionPool(URL, USER, PASSWORD, 2, 1);
+        try {
+            pool.fillToMinimum();
+            Connection conn = pool.borrow();
+            boolean lent = pool.getActive() == 1 && pool.getIdle() == 0;
+            conn.close();
+            boolean returned = pool.getActive() == 0 && pool.getIdle() == 1;
+            pool.borrow().close();
+            boolean reused = pool.getCreated() == 1;
+            report("borrow and return", lent && returned && reused,
+                    "active " + pool.getActive() + ", idle " + pool.getIdle() + ", created " + pool.getCreated());
+        } finally {
+            pool.close();
+        }
+    }
+
+    private static void checkRollbackOnReturn() throws SQLException {
+        DatabaseApp.ConnectionPool pool = new DatabaseApp.ConnectionPool(URL, USER, PASSWORD, 1, 1);
+        try {
+            try (Connection conn = pool.borrow(); Statement stmt = conn.createStatement()) {
+                stmt.execute("CREATE TABLE pool_check (id INT PRIMARY KEY)");
+            }
+            Connection conn = pool.borrow();
+            conn.setAutoCommit(false);
+            conn.createStatement().execute("INSERT INTO pool_check VALUES (1)");
+            conn.close(); // Without commit
+
+            int rows;
+            boolean autoCommit;
+            try (Connection next = pool.borrow(); Statement stmt = next.createStatement();
+                 ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM pool_check")) {
+                rs.next();
+                rows = rs.getInt(1);
+                autoCommit = next.getAutoCommit();
+                stmt.execute("DROP TABLE pool_check");
+            }
+            report("rollback on return", rows == 0 && autoCommit, rows + " row(s) left, auto-commit " + autoCommit);
+        } finally {
+            pool.close();
+        }
+    }
+
+    private static void checkTimeoutWhenExhausted() throws SQLException {
+        DatabaseApp.ConnectionPool pool = new DatabaseApp.ConnectionPool(URL, USER, PASSWORD, 2, 0, 200);
+        try {
+            Connection first = pool.borrow();
+            Connection second = pool.borrow();
+            long start = System.nanoTime();
+            String outcome;
+            boolean timedOut = false;
+            try {
+                pool.borrow().close();
+                outcome = "a third connection was handed out";
+            } catch (SQLException e) {
+                long waitedMillis = (System.nanoTime() - start) / 1_000_000;
+                timedOut = waitedMillis >= 200 && pool.getTimeouts() == 1;
+                outcome = "failed after " + waitedMillis + " ms: " + e.getMessage();
+            }
+            first.close();
+            second.close();
+            report("timeout when exhausted", timedOut, outcome);
+        } finally {
+            pool.close();
+        }
+    }
+
+    private static void checkUseAfterClose() throws SQLException {
+        DatabaseApp.ConnectionPool pool = new DatabaseApp.ConnectionPool(URL, USER, PASSWORD, 1, 0);
+        boolean rejected = false;
+        boolean closedBorrowRejected = false;
+        Connection conn = pool.borrow();
+        conn.close();
+        conn.close(); // A second close must not return the connection twice
+        boolean isClosed = conn.isClosed();
+        try {
+            conn.createStatement();
+        } catch (SQLException e) {
+            rejected = true;
+        }
+        boolean singleIdle = pool.getIdle() == 1 && pool.getActive() == 0;
+        pool.close();
+        try {
+            pool.borrow().close();
+        } catch (SQLException e) {
+            closedBorrowRejected = true;
+        }
+        report("use after close", isClosed && rejected && singleIdle && closedBorrowRejected,
+                "isClosed " + isClosed + ", statement rejected " + rejected + ", returned once " + singleIdle
+                        + ", borrow from closed pool rejected " + closedBorrowRejected);
+    }
+
+    private static void checkTableListing() throws SQLException {
+        try (Connection conn = DatabaseApp.DBUtil.getConnection(); Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE TABLE listing_check (id INT PRIMARY KEY)");
+        }
+        DatabaseApp.SchemaCache cache = new DatabaseApp.SchemaCache();
+        try {
+            List<String> tables = cache.getTables();
+            report("table listing", tables.equals(List.of("LISTING_CHECK")), "tables " + tables);
+        } finally {
+            cache.close();
+        }
+    }
+
+    private static void report(String check, boolean passed, String detail) {
+        if (!passed) {
+            failures++;
+        }
+        System.out.println((passed ? "OK   " : "FAIL ") + check + " (" + detail + ")");
+    }
+}
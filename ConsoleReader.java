@@ -0,0 +1,236 @@
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.util.InputMismatchException;
+import java.util.NoSuchElementException;
+
+// Replacement for java.util.Scanner on System.in. Reads bytes through its own
+// buffer and parses ints and doubles straight from them, without regular
+// expressions or a String per token, so piping in a million numbers is fast.
+//
+// Tokens are separated by whitespace, as with Scanner. Unlike Scanner, an invalid
+// token is consumed when nextInt()/nextDouble() reject it, so a caller only has to
+// skip the rest of the line before asking again.
+public class ConsoleReader {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final int MAX_FAST_DIGITS = 15; // Up to 15 digits are exact in a double
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+            1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private final InputStream in;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private int position;
+    private int limit;
+    private byte[] token = new byte[64]; // Current token, reused
+    private int tokenLength;
+
+    public ConsoleReader(InputStream in) {
+        this.in = in;
+    }
+
+    public int nextInt() {
+        readToken();
+        int i = 0;
+        boolean negative = false;
+        if (token[0] == '-' || token[0] == '+') {
+            negative = token[0] == '-';
+            i = 1;
+        }
+        if (i == tokenLength) throw mismatch();
+        long value = 0;
+        for (; i < tokenLength; i++) {
+            int digit = token[i] - '0';
+            if (digit < 0 || digit > 9) throw mismatch();
+            value = value * 10 + digit;
+            if (value > (long) Integer.MAX_VALUE + 1) throw mismatch();
+        }
+        value = negative ? -value : value;
+        if (value > Integer.MAX_VALUE) throw mismatch();
+        return (int) value;
+    }
+
+    public double nextDouble() {
+        readToken();
+        double value = parseSimpleDouble();
+        if (!Double.isNaN(value)) {
+            return value;
+        }
+        // Rare but valid forms (NaN, Infinity, more than 15 digits, large exponents)
+        // take the slow path; parseSimpleDouble() has already rejected anything else
+        String text = new String(token, 0, tokenLength, Charset.defaultCharset());
+        try {
+            return Double.parseDouble(text);
+        } catch (NumberFormatException e) {
+            throw mismatch();
+        }
+    }
+
+    // [sign] digits [. digits] [e [sign] digits], computed exactly as long as the
+    // digits fit in 15 and the scale in 10^22; NaN means "use the slow path". Other
+    // text, including the type suffixes Double.parseDouble allows (1d, 2f), and hex
+    // forms, is rejected here so it never reaches the slow path.
+    private double parseSimpleDouble() {
+        int i = 0;
+        boolean negative = false;
+        if (token[0] == '-' || token[0] == '+') {
+            negative = token[0] == '-';
+            i = 1;
+        }
+        long mantissa = 0;
+        int digits = 0;
+        int scale = 0;
+        boolean anyDigit = false;
+        boolean slow = false;
+        for (; i < tokenLength && token[i] >= '0' && token[i] <= '9'; i++) {
+            anyDigit = true;
+            if (mantissa == 0 && token[i] == '0') continue; // Leading zeros do not count
+            mantissa = mantissa * 10 + (token[i] - '0');
+            digits++;
+        }
+        if (i < tokenLength && token[i] == '.') {
+            for (i++; i < tokenLength && token[i] >= '0' && token[i] <= '9'; i++) {
+                anyDigit = true;
+                scale--;
+                if (mantissa == 0 && token[i] == '0') continue;
+                mantissa = mantissa * 10 + (token[i] - '0');
+                digits++;
+            }
+        }
+        if (!anyDigit) {
+            if (matches(i, "NaN") || matches(i, "Infinity")) return Double.NaN;
+            throw mismatch();
+        }
+        if (digits > MAX_FAST_DIGITS) slow = true;
+        if (i < tokenLength && (token[i] == 'e' || token[i] == 'E')) {
+            i++;
+            boolean negativeExponent = false;
+            if (i < tokenLength && (token[i] == '-' || token[i] == '+')) {
+                negativeExponent = token[i] == '-';
+                i++;
+            }
+            int exponentStart = i;
+            int exponent = 0;
+            for (; i < tokenLength && token[i] >= '0' && token[i] <= '9'; i++) {
+                if (exponent <= 400) exponent = exponent * 10 + (token[i] - '0');
+            }
+            if (i == exponentStart) throw mismatch();
+            if (exponent > 400) slow = true;
+            scale += negativeExponent ? -exponent : exponent;
+        }
+        if (i != tokenLength) throw mismatch();
+        if (slow) return Double.NaN;
+        double value = mantissa;
+        if (scale > 0) {
+            if (scale >= POWERS_OF_TEN.length) return Double.NaN;
+            value *= POWERS_OF_TEN[scale];
+        } else if (scale < 0) {
+            if (-scale >= POWERS_OF_TEN.length) return Double.NaN;
+            value /= POWERS_OF_TEN[-scale];
+        }
+        return negative ? -value : value;
+    }
+
+    // Whether the token from position from on is exactly the given ASCII word
+    private boolean matches(int from, String word) {
+        if (tokenLength - from != word.length()) return false;
+        for (int i = 0; i < word.length(); i++) {
+            if (token[from + i] != word.charAt(i)) return false;
+        }
+        return true;
+    }
+
+    // Skips whitespace; false at the end of the input
+    public boolean hasNext() {
+        while (fill()) {
+            if (!isWhitespace(buffer[position])) return true;
+            position++;
+        }
+        return false;
+    }
+
+    // Text of the token last read by nextInt() or nextDouble(), e.g. after a mismatch
+    public String lastToken() {
+        return new String(token, 0, tokenLength, Charset.defaultCharset());
+    }
+
+    // Rest of the current line without the line terminator
+    public String nextLine() {
+        if (!fill()) {
+            throw new NoSuchElementException("No line found");
+        }
+        tokenLength = 0;
+        while (fill()) {
+            byte b = buffer[position++];
+            if (b == '\n') break;
+            appendToToken(b);
+        }
+        int length = tokenLength;
+        if (length > 0 && token[length - 1] == '\r') length--;
+        return new String(token, 0, length, Charset.defaultCharset());
+    }
+
+    // Discards the rest of the current line, if any
+    public void skipLine() {
+        while (fill()) {
+            if (buffer[position++] == '\n') return;
+        }
+    }
+
+    public void close() {
+        try {
+            in.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Next whitespace-separated token into token[0, tokenLength)
+    private void readToken() {
+        while (true) {
+            if (!fill()) throw new NoSuchElementException();
+            if (!isWhitespace(buffer[position])) break;
+            position++;
+        }
+        tokenLength = 0;
+        while (fill() && !isWhitespace(buffer[position])) {
+            appendToToken(buffer[position++]);
+        }
+    }
+
+    private void appendToToken(byte b) {
+        if (tokenLength == token.length) {
+            byte[] grown = new byte[token.length * 2];
+            System.arraycopy(token, 0, grown, 0, tokenLength);
+            token = grown;
+        }
+        token[tokenLength++] = b;
+    }
+
+    // True when at least one byte is available; blocks for more input if needed
+    private boolean fill() {
+        if (position < limit) return true;
+        try {
+            limit = in.read(buffer, 0, buffer.length);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        position = 0;
+        if (limit <= 0) {
+            limit = 0;
+            return false;
+        }
+        return true;
+    }
+
+    private static boolean isWhitespace(byte b) {
+        return b == ' ' || b == '\n' || b == '\r' || b == '\t' || b == '\f' || b == 0x0B;
+    }
+
+    private InputMismatchException mismatch() {
+        return new InputMismatchException("For input string: \"" + lastToken() + "\"");
+    }
+}
@@ -0,0 +1,368 @@
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Random;
+
+// Throughput and allocation benchmarks for the operations behind the calculator
+// menus, comparing the original java.util backends with the primitive ones.
+//
+//   java DataStructureBenchmark [--sizes 1000,10000,...] [--time ms] [--filter text]
+//
+// Each case is warmed up, then run repeatedly for the measurement time; ops/sec,
+// ns/op and bytes allocated per op (by the benchmark thread) are reported. Works
+// like a small JMH harness without needing the JMH dependency: state is built
+// once per case, results go to a sink so the JIT cannot drop the work, and a case
+// that does not fit in the heap is reported as skipped instead of ending the run.
+public class DataStructureBenchmark {
+
+    private static final int[] DEFAULT_SIZES = {1_000, 10_000, 100_000, 1_000_000, 10_000_000};
+    private static final long DEFAULT_TIME_MILLIS = 1000;
+    private static final int WARMUP_ROUNDS = 3;
+
+    private static volatile double sink; // Keeps results alive
+
+    // --- Benchmark Case Class ---
+    abstract static class Case {
+        final String operation;
+        final String backend;
+
+        Case(String operation, String backend) {
+            this.operation = operation;
+            this.backend = backend;
+        }
+
+        abstract void setUp(double[] values);
+
+        abstract double invoke();
+
+        void tearDown() {
+        }
+    }
+    // --- End Benchmark Case Class ---
+
+    public static void main(String[] args) {
+        int[] sizes = DEFAULT_SIZES;
+        long timeMillis = DEFAULT_TIME_MILLIS;
+        String filter = null;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--sizes":
+                    String[] parts = args[i + 1].split(",");
+                    sizes = new int[parts.length];
+                    for (int p = 0; p < parts.length; p++) {
+                        sizes[p] = (int) Double.parseDouble(parts[p].trim());
+                    }
+                    break;
+                case "--time":
+                    timeMillis = Long.parseLong(args[i + 1]);
+                    break;
+                case "--filter":
+                    filter = args[i + 1].toLowerCase();
+                    break;
+                default:
+                    System.out.println("Unknown option " + args[i]);
+                    return;
+            }
+        }
+
+        System.out.printf("%-22s %-18s %10s %14s %14s %12s%n", "Operation", "Backend", "Size", "ops/sec", "ns/op", "bytes/op");
+        for (int size : sizes) {
+            double[] values = randomValues(size, new Random(42));
+            for (Case c : cases(size)) {
+                String name = (c.operation + " " + c.backend).toLowerCase();
+                if (filter != null && !name.contains(filter)) continue;
+                run(c, values, size, timeMillis);
+            }
+        }
+    }
+
+    private static void run(Case c, double[] values, int size, long timeMillis) {
+        try {
+            c.setUp(values);
+            long warmupNanos = timeMillis * 1_000_000L / 2;
+            for (int round = 0; round < WARMUP_ROUNDS; round++) {
+                measure(c, warmupNanos / WARMUP_ROUNDS);
+            }
+            long allocatedBefore = allocatedBytes();
+            long[] result = measure(c, timeMillis * 1_000_000L);
+            long allocated = allocatedBytes() - allocatedBefore;
+            long ops = result[0];
+            long nanos = result[1];
+            System.out.printf("%-22s %-18s %10d %14.1f %14.1f %12s%n", c.operation, c.backend, size,
+                    ops * 1e9 / nanos, (double) nanos / ops, allocatedBefore < 0 ? "n/a" : String.format("%.1f", (double) allocated / ops));
+        } catch (OutOfMemoryError e) {
+            System.out.printf("%-22s %-18s %10d %14s%n", c.operation, c.backend, size, "skipped (heap)");
+        } finally {
+            c.tearDown();
+        }
+    }
+
+    // Returns {operations, elapsed nanos}; always runs at least one operation
+    private static long[] measure(Case c, long budgetNanos) {
+        long start = System.nanoTime();
+        long deadline = start + budgetNanos;
+        long ops = 0;
+        double acc = 0;
+        long now;
+        do {
+            acc += c.invoke();
+            ops++;
+            now = System.nanoTime();
+        } while (now < deadline);
+        sink = acc;
+        return new long[]{ops, now - start};
+    }
+
+    private static long allocatedBytes() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean sunBean = (com.sun.management.ThreadMXBean) bean;
+            if (sunBean.isThreadAllocatedMemorySupported() && sunBean.isThreadAllocatedMemoryEnabled()) {
+                return sunBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+            }
+        }
+        return -1;
+    }
+
+    private static double[] randomValues(int size, Random random) {
+        double[] values = new double[size];
+        for (int i = 0; i < size; i++) {
+            values[i] = Math.floor(random.nextDouble() * size * 10) / 10;
+        }
+        return values;
+    }
+
+    // 1024 values taken from the dataset, the same for every search case of a size
+    private static double[] searchProbes(double[] values) {
+        Random random = new Random(11);
+        double[] probes = new double[1024];
+        for (int i = 0; i < probes.length; i++) probes[i] = values[random.nextInt(values.length)];
+        return probes;
+    }
+
+    private static ArrayList<Double> boxed(double[] values) {
+        ArrayList<Double> list = new ArrayList<>(values.length);
+        for (double value : values) list.add(value);
+        return list;
+    }
+
+    private static DoubleArray primitive(double[] values) {
+        DoubleArray array = new DoubleArray(values.length);
+        for (double value : values) array.add(value);
+        return array;
+    }
+
+    // --- Cases ---
+    private static List<Case> cases(int size) {
+        List<Case> cases = new ArrayList<>();
+        Random random = new Random(7);
+
+        // Sum, average, min and max as the array menu computes them
+        cases.add(new Case("sum/avg/min/max", "ArrayList") {
+            ArrayList<Double> list;
+            void setUp(double[] values) { list = boxed(values); }
+            double invoke() {
+                double sum = list.stream().mapToDouble(Double::doubleValue).sum();
+                double avg = list.stream().mapToDouble(Double::doubleValue).average().orElse(0.0);
+                return sum + avg + Collections.min(list) + Collections.max(list);
+            }
+            void tearDown() { list = null; }
+        });
+        cases.add(new Case("sum/avg/min/max", "DoubleReductions") {
+            DoubleArray array;
+            void setUp(double[] values) { array = primitive(values); }
+            double invoke() {
+                DoubleArray.Summary summary = array.summarize();
+                return summary.getSum() + summary.getAverage() + summary.getMin() + summary.getMax();
+            }
+            void tearDown() { array = null; }
+        });
+        cases.add(new Case("sum/avg/min/max", "RunningStats") {
+            DoubleArray array;
+            void setUp(double[] values) { array = primitive(values); }
+            double invoke() { return array.getSum() + array.getAverage() + array.getMin() + array.getMax(); }
+            void tearDown() { array = null; }
+        });
+
+        // Entering the array, list and queue menus (each takes its own working copy)
+        cases.add(new Case("menu entry", "java.util copies") {
+            ArrayList<Double> list;
+            void setUp(double[] values) { list = boxed(values); }
+            double invoke() {
+                return new ArrayList<>(list).size() + new LinkedList<>(list).size() + new LinkedList<>(list).size();
+            }
+            void tearDown() { list = null; }
+        });
+        cases.add(new Case("menu entry", "snapshots") {
+            DoubleArray array;
+            void setUp(double[] values) { array = primitive(values); }
+            double invoke() {
+                return array.snapshot().size() + ChunkedDoubleList.of(array).size() + DoubleRingQueue.of(array).size();
+            }
+            void tearDown() { array = null; }
+        });
+
+        // Sort from unsorted input (the copy is part of each op for both backends)
+        cases.add(new Case("sort", "ArrayList") {
+            ArrayList<Double> list;
+            void setUp(double[] values) { list = boxed(values); }
+            double invoke() {
+                ArrayList<Double> copy = new ArrayList<>(list);
+                Collections.sort(copy);
+                return copy.get(0);
+            }
+            void tearDown() { list = null; }
+        });
+        cases.add(new Case("sort", "DoubleArray") {
+            DoubleArray array;
+            void setUp(double[] values) { array = primitive(values); }
+            double invoke() {
+                DoubleArray copy = new DoubleArray(array);
+                copy.sort();
+                return copy.get(0);
+            }
+            void tearDown() { array = null; }
+        });
+
+        // Sort again after appending one value (then drop it to keep the size fixed)
+        cases.add(new Case("sort after append", "ArrayList") {
+            ArrayList<Double> list;
+            void setUp(double[] values) {
+                list = boxed(values);
+                Collections.sort(list);
+            }
+            double invoke() {
+                list.add(random.nextDouble() * size);
+                Collections.sort(list);
+                return list.remove(list.size() - 1);
+            }
+            void tearDown() { list = null; }
+        });
+        cases.add(new Case("sort after append", "DoubleArray") {
+            DoubleArray array;
+            void setUp(double[] values) {
+                array = primitive(values);
+                array.sort();
+            }
+            double invoke() {
+                array.add(random.nextDouble() * size);
+                array.sort();
+                return array.remove(array.size() - 1);
+            }
+            void tearDown() { array = null; }
+        });
+
+        // Median and top-10: sorting a copy versus selection and a bounded heap
+        cases.add(new Case("median+top10", "ArrayList sort") {
+            ArrayList<Double> list;
+            void setUp(double[] values) { list = boxed(values); }
+            double invoke() {
+                ArrayList<Double> copy = new ArrayList<>(list);
+                Collections.sort(copy);
+                return copy.get(copy.size() / 2) + copy.get(copy.size() - 10);
+            }
+            void tearDown() { list = null; }
+        });
+        cases.add(new Case("median+top10", "OrderStatistics") {
+            DoubleArray array;
+            void setUp(double[] values) { array = primitive(values); }
+            double invoke() { return OrderStatistics.median(array) + OrderStatistics.top(array, 10)[9]; }
+            void tearDown() { array = null; }
+        });
+
+        // Search for an element that is present; both backends look up the same probes
+        cases.add(new Case("search", "ArrayList") {
+            ArrayList<Double> list;
+            double[] probes;
+            int next;
+            void setUp(double[] values) {
+                list = boxed(values);
+                probes = searchProbes(values);
+            }
+            double invoke() {
+                double probe = probes[next++ & (probes.length - 1)];
+                return list.contains(probe) ? list.indexOf(probe) : -1;
+            }
+            void tearDown() { list = null; }
+        });
+        cases.add(new Case("search", "DoubleArray") {
+            DoubleArray array;
+            double[] probes;
+            int next;
+            void setUp(double[] values) {
+                array = primitive(values);
+                probes = searchProbes(values);
+            }
+            double invoke() { return array.indexOf(probes[next++ & (probes.length - 1)]); }
+            void tearDown() { array = null; }
+        });
+
+        // Positional insert and remove in the middle (a pair keeps the size fixed)
+        cases.add(new Case("list add/remove mid", "LinkedList") {
+            LinkedList<Double> list;
+            void setUp(double[] values) { list = new LinkedList<>(boxed(values)); }
+            double invoke() {
+                int position = list.size() / 2;
+                list.add(position, 1.0);
+                return list.remove(position);
+            }
+            void tearDown() { list = null; }
+        });
+        cases.add(new Case("list add/remove mid", "ChunkedDoubleList") {
+            ChunkedDoubleList list;
+            void setUp(double[] values) { list = ChunkedDoubleList.of(primitive(values)); }
+            double invoke() {
+                int position = list.size() / 2;
+                list.add(position, 1.0);
+                return list.remove(position);
+            }
+            void tearDown() { list = null; }
+        });
+
+        // Queue rotate by a third of the size, and shrink a tenth then refill it
+        final int rotateBy = Math.max(1, size / 3);
+        final int shrinkBy = Math.max(1, size / 10);
+        cases.add(new Case("queue rotate", "LinkedList") {
+            LinkedList<Double> queue;
+            void setUp(double[] values) { queue = new LinkedList<>(boxed(values)); }
+            double invoke() {
+                for (int i = 0; i < rotateBy; i++) queue.offer(queue.poll());
+                return queue.peek();
+            }
+            void tearDown() { queue = null; }
+        });
+        cases.add(new Case("queue rotate", "DoubleRingQueue") {
+            DoubleRingQueue queue;
+            void setUp(double[] values) { queue = DoubleRingQueue.of(primitive(values)); }
+            double invoke() {
+                queue.rotate(rotateBy);
+                return queue.peek();
+            }
+            void tearDown() { queue = null; }
+        });
+        cases.add(new Case("queue shrink+refill", "LinkedList") {
+            LinkedList<Double> queue;
+            void setUp(double[] values) { queue = new LinkedList<>(boxed(values)); }
+            double invoke() {
+                for (int i = 0; i < shrinkBy; i++) queue.poll();
+                for (int i = 0; i < shrinkBy; i++) queue.offer((double) i);
+                return queue.peek();
+            }
+            void tearDown() { queue = null; }
+        });
+        cases.add(new Case("queue shrink+refill", "DoubleRingQueue") {
+            DoubleRingQueue queue;
+            void setUp(double[] values) { queue = DoubleRingQueue.of(primitive(values)); }
+            double invoke() {
+                queue.shrink(shrinkBy);
+                for (int i = 0; i < shrinkBy; i++) queue.offer(i);
+                return queue.peek();
+            }
+            void tearDown() { queue = null; }
+        });
+        return cases;
+    }
+}
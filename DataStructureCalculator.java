@@ -1,16 +1,70 @@
-import java.util.ArrayList;
-import java.util.Collections;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.lang.ref.SoftReference;
+import java.nio.file.Paths;
+import java.util.Arrays;
 import java.util.InputMismatchException;
-import java.util.LinkedList;
-import java.util.Queue;
-import java.util.Scanner;
 
 public class DataStructureCalculator {
 
-    private static Scanner scanner = new Scanner(System.in); // Initialized Scanner for console input
-    private static ArrayList<Double> initialInputs; // To store the user's initial numbers
+    private static ConsoleReader console = new ConsoleReader(System.in); // Buffered number reader for console input
+    private static DoubleArray initialInputs; // To store the user's initial numbers
+    private static MappedDataset mappedDataset; // Binary file loaded in place of initialInputs, if any
+    private static SoftReference<DoubleArray> sortedInputs; // Last sorted copy of initialInputs, reused by the array menu
+    private static int sortedInputsCount; // How many of initialInputs it holds
+    private static long sortedInputsEdits; // initialInputs.getEditCount() when it was taken
+    private static DatasetStore store; // Snapshot and log of the inputs with --data-dir, else null
+    private static DatasetSlots slots = new DatasetSlots(); // Named datasets for element-wise operations
 
     public static void main(String[] args) {
+        if (args.length > 1 && args[0].equals("--data-dir")) {
+            // Durable inputs: recovered from the directory at startup, every change logged to it
+            try {
+                store = DatasetStore.open(Paths.get(args[1]));
+            } catch (IOException e) {
+                System.out.println("Error opening data directory: " + e.getMessage());
+                return;
+            }
+            System.out.println("Recovered " + store.getRecoveredCount() + " numbers from '" + args[1] + "' in "
+                    + String.format("%.1f", store.getRecoveryNanos() / 1e6) + " ms.");
+            args = Arrays.copyOfRange(args, 2, args.length);
+        }
+        try {
+            run(args);
+        } finally {
+            if (store != null) {
+                try {
+                    store.close();
+                } catch (IOException e) {
+                    System.out.println("Error closing data directory: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private static void run(String[] args) {
+        if (args.length > 0 && args[0].equals("--batch")) {
+            // Headless mode: run a script of operations from a file, or stdin if none is given
+            BatchRunner.runScript(args.length > 1 ? args[1] : null, store);
+            return;
+        }
+        if (args.length > 0 && args[0].equals("--server")) {
+            // Multi-client mode: serve the script commands over a local socket
+            try {
+                CalculatorServer.runServer(args.length > 1 ? Integer.parseInt(args[1]) : CalculatorServer.DEFAULT_PORT, store);
+            } catch (NumberFormatException e) {
+                System.out.println("Invalid port: " + args[1]);
+            }
+            return;
+        }
+        if (args.length > 0 && args[0].equals("--stream")) {
+            // Constant-memory mode: statistics and sketches over an unbounded stream of numbers
+            StreamAnalyzer.runStream(args.length > 1 ? args[1] : null);
+            return;
+        }
+
+        OperationMetrics.configure();
         System.out.println("Welcome to the Data Structure Calculator!");
 
         collectInitialInputs();
@@ -33,31 +87,46 @@ public class DataStructureCalculator {
                     performBasicCalculations();
                     break;
                 case 5:
+                    loadBinaryDataset();
+                    break;
+                case 6:
+                    showOperationStatistics();
+                    break;
+                case 7:
                     System.out.println("Exiting Data Structure Calculator. Goodbye!");
-                    scanner.close(); // Close the scanner when done
+                    console.close(); // Close the console reader when done
                     return;
                 default:
                     System.out.println("Invalid choice. Please try again.");
             }
             System.out.println("\nPress Enter to continue...");
-            scanner.nextLine(); // Consume newline after user sees messages and before next menu
+            console.nextLine(); // Consume newline after user sees messages and before next menu
         }
     }
 
     private static void collectInitialInputs() {
-        System.out.print("How many numbers do you want to enter for data structure operations? (Enter 0 if none): ");
+        initialInputs = new DoubleArray(0);
+        if (store != null && store.getRecoveredCount() > 0) {
+            initialInputs.replaceAll(store.recoveredValues(), store.getRecoveredCount());
+            store.releaseRecovered();
+            System.out.println("Numbers from the previous session: " + initialInputs);
+            System.out.print("How many more numbers do you want to enter? (Enter 0 if none): ");
+        } else {
+            System.out.print("How many numbers do you want to enter for data structure operations? (Enter 0 if none): ");
+        }
         int count = getIntInput(); // Uses the getIntInput() method
 
-        initialInputs = new ArrayList<>();
         if (count <= 0) {
-            System.out.println("No initial numbers will be collected for data structures. You can still perform direct calculations.");
+            if (initialInputs.isEmpty()) {
+                System.out.println("No initial numbers will be collected for data structures. You can still perform direct calculations.");
+            }
             return;
         }
 
         System.out.println("Please enter " + count + " numbers:");
         for (int i = 0; i < count; i++) {
             System.out.print("Enter number " + (i + 1) + ": ");
-            initialInputs.add(getDoubleInput()); // Uses the getDoubleInput() method
+            addToInputs(getDoubleInput()); // Uses the getDoubleInput() method
         }
         System.out.println("Initial numbers collected: " + initialInputs);
     }
@@ -68,10 +137,93 @@ public class DataStructureCalculator {
         System.out.println("2. Linked List Operations");
         System.out.println("3. Queue Operations");
         System.out.println("4. Basic Two-Number Calculator");
-        System.out.println("5. Exit");
+        System.out.println("5. Load Binary Dataset File");
+        System.out.println("6. Operation Statistics");
+        System.out.println("7. Exit");
         System.out.print("Enter your choice: ");
     }
 
+    // Maps a file of little-endian doubles; the array, list and queue menus then use it instead of initialInputs
+    private static void loadBinaryDataset() {
+        System.out.print("Enter path of the binary file (leave empty to go back to the initial numbers): ");
+        String path = console.nextLine().trim();
+        if (path.isEmpty()) {
+            mappedDataset = null;
+            System.out.println("Using the initial numbers for data structure operations.");
+            return;
+        }
+        try {
+            mappedDataset = MappedDataset.open(Paths.get(path));
+            System.out.println("Mapped " + mappedDataset.size() + " values from '" + path + "' (read-only).");
+        } catch (IOException e) {
+            System.out.println("Error loading dataset: " + e.getMessage());
+        }
+    }
+
+    // Changes to initialInputs go through these, so that --data-dir logs them
+    private static void addToInputs(double value) {
+        initialInputs.add(value);
+        if (store != null) {
+            try {
+                store.append(value);
+                store.maybeCompact(initialInputs);
+            } catch (IOException e) {
+                System.out.println("Warning: could not save to the data directory: " + e.getMessage());
+            }
+        }
+    }
+
+    private static void appendToInputs(double[] values) {
+        initialInputs.addAll(values, 0, values.length);
+        if (store != null) {
+            try {
+                store.appendAll(values, 0, values.length);
+                store.maybeCompact(initialInputs);
+            } catch (IOException e) {
+                System.out.println("Warning: could not save to the data directory: " + e.getMessage());
+            }
+        }
+    }
+
+    private static void replaceInputs(double[] values) {
+        initialInputs.replaceAll(values, values.length);
+        sortedInputs = null; // Out of date now, so let it go instead of holding it until the next sort
+        if (store != null) {
+            try {
+                store.replaceAll(initialInputs);
+            } catch (IOException e) {
+                System.out.println("Warning: could not save to the data directory: " + e.getMessage());
+            }
+        }
+    }
+
+    // Latency and allocation per operation; recording is off until switched on here
+    private static void showOperationStatistics() {
+        System.out.println(OperationMetrics.report());
+        System.out.print("Metrics are " + (OperationMetrics.isEnabled() ? "on" : "off")
+                + ". Enter 'on', 'off' or 'reset' to change, or press Enter to go back: ");
+        String action = console.nextLine().trim().toLowerCase();
+        switch (action) {
+            case "on":
+                OperationMetrics.setEnabled(true);
+                System.out.println("Recording operation metrics.");
+                break;
+            case "off":
+                OperationMetrics.setEnabled(false);
+                System.out.println("Operation metrics off.");
+                break;
+            case "reset":
+                OperationMetrics.reset();
+                System.out.println("Operation metrics cleared.");
+                break;
+        }
+    }
+
+    // Data the array, list and queue menus start from
+    static DoubleSource activeSource() {
+        return mappedDataset != null ? mappedDataset : initialInputs;
+    }
+
     private static int getUserChoice() {
         return getIntInput(); // Uses the getIntInput() method
     }
@@ -80,12 +232,11 @@ public class DataStructureCalculator {
     private static int getIntInput() {
         while (true) {
             try {
-                return scanner.nextInt();
+                return console.nextInt(); // An invalid token is consumed as well
             } catch (InputMismatchException e) {
                 System.out.print("Invalid input. Please enter an integer: ");
-                scanner.next(); // Consume the invalid input
             } finally {
-                scanner.nextLine(); // Consume the rest of the line (e.g., the Enter key press)
+                console.skipLine(); // Consume the rest of the line (e.g., the Enter key press)
             }
         }
     }
@@ -93,15 +244,38 @@ public class DataStructureCalculator {
     private static double getDoubleInput() {
         while (true) {
             try {
-                return scanner.nextDouble();
+                return console.nextDouble(); // An invalid token is consumed as well
             } catch (InputMismatchException e) {
                 System.out.print("Invalid input. Please enter a number: ");
-                scanner.next(); // Consume the invalid input
             } finally {
-                scanner.nextLine(); // Consume the rest of the line
+                console.skipLine(); // Consume the rest of the line
             }
         }
     }
+
+    // Prints a bounded preview; the full contents are streamed only when asked for.
+    // category names the structure for the operation metrics ("array", "list", "queue").
+    private static void display(String category, String label, DoubleSequence values) {
+        long started = OperationMetrics.start();
+        System.out.println(label + values);
+        OperationMetrics.stop(category, "display", started, Math.min(values.size(), DisplayWindow.LIMIT));
+        if (values.size() <= DisplayWindow.LIMIT) {
+            return;
+        }
+        System.out.print("Show all " + values.size() + " values? (y/n): ");
+        if (!console.nextLine().trim().equalsIgnoreCase("y")) {
+            return;
+        }
+        BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(System.out), 1 << 16);
+        started = OperationMetrics.start();
+        try {
+            DisplayWindow.dump(values, writer);
+            writer.flush(); // Not closed: that would close System.out
+            OperationMetrics.stop(category, "dump", started, values.size());
+        } catch (IOException e) {
+            System.out.println("Error writing values: " + e.getMessage());
+        }
+    }
     // --- END CONSOLE INPUT HELPER METHODS ---
 
 
@@ -114,7 +288,9 @@ public class DataStructureCalculator {
             System.out.println("\nCalculator Menu:");
             System.out.println("1. Use numbers from initial inputs");
             System.out.println("2. Enter new numbers");
-            System.out.println("3. Back to Main Menu");
+            System.out.println("3. Evaluate an expression over all numbers");
+            System.out.println("4. Element-wise operations on whole datasets");
+            System.out.println("5. Back to Main Menu");
             System.out.print("Enter your choice: ");
 
             int selectionChoice = getUserChoice();
@@ -145,6 +321,14 @@ public class DataStructureCalculator {
                 System.out.print("Enter second number: ");
                 num2 = getDoubleInput();
             } else if (selectionChoice == 3) {
+                evaluateExpression();
+                System.out.println("\nPress Enter to continue Basic Calculator operations...");
+                console.nextLine();
+                continue;
+            } else if (selectionChoice == 4) {
+                performVectorOperations();
+                continue;
+            } else if (selectionChoice == 5) {
                 return;
             } else {
                 System.out.println("Invalid choice. Please try again.");
@@ -162,18 +346,22 @@ public class DataStructureCalculator {
             int operationChoice = getUserChoice();
             double result = 0;
             boolean operationPerformed = true;
+            long started = OperationMetrics.start();
 
             switch (operationChoice) {
                 case 1:
                     result = num1 + num2;
+                    OperationMetrics.stop("calc", "add", started, 2);
                     System.out.println(num1 + " + " + num2 + " = " + result);
                     break;
                 case 2:
                     result = num1 - num2;
+                    OperationMetrics.stop("calc", "sub", started, 2);
                     System.out.println(num1 + " - " + num2 + " = " + result);
                     break;
                 case 3:
                     result = num1 * num2;
+                    OperationMetrics.stop("calc", "mul", started, 2);
                     System.out.println(num1 + " * " + num2 + " = " + result);
                     break;
                 case 4:
@@ -182,6 +370,7 @@ public class DataStructureCalculator {
                         operationPerformed = false;
                     } else {
                         result = num1 / num2;
+                        OperationMetrics.stop("calc", "div", started, 2);
                         System.out.println(num1 + " / " + num2 + " = " + result);
                     }
                     break;
@@ -192,24 +381,166 @@ public class DataStructureCalculator {
 
             if (operationPerformed) {
                 System.out.print("Add result (" + result + ") to initial inputs? (y/n): ");
-                String addResultChoice = scanner.nextLine().trim().toLowerCase(); // Use scanner.nextLine() for string
+                String addResultChoice = console.nextLine().trim().toLowerCase(); // Use console.nextLine() for string
                 if (addResultChoice.equals("y")) {
-                    initialInputs.add(result);
+                    addToInputs(result);
                     System.out.println("Result added to initial inputs: " + initialInputs);
                 }
             }
 
             System.out.println("\nPress Enter to continue Basic Calculator operations...");
-            scanner.nextLine();
+            console.nextLine();
+        }
+    }
+
+    // Compiles the expression once, then evaluates it over the whole dataset in blocks
+    private static void evaluateExpression() {
+        DoubleSource source = activeSource();
+        if (source.isEmpty()) {
+            System.out.println("There are no numbers to evaluate the expression over.");
+            return;
+        }
+        System.out.println("Use x for the current number and i for its index; n, sum, mean, min, max, variance and");
+        System.out.println("stddev refer to the whole dataset. Example: (x - mean) / stddev");
+        System.out.print("Enter expression: ");
+        Expression expression;
+        try {
+            expression = Expression.compile(console.nextLine());
+        } catch (IllegalArgumentException e) {
+            System.out.println("Error: " + e.getMessage());
+            return;
+        }
+
+        long started = OperationMetrics.start();
+        double[] results = expression.evaluate(source);
+        OperationMetrics.stop("calc", "eval", started, source.size());
+        DoubleArray resultArray = new DoubleArray(0);
+        resultArray.replaceAll(results, results.length);
+        System.out.println("Results of " + expression + ": " + resultArray);
+
+        System.out.print("Store the results? (r = replace initial inputs, a = append to initial inputs, n = no): ");
+        String storeChoice = console.nextLine().trim().toLowerCase();
+        if (storeChoice.equals("r")) {
+            replaceInputs(results);
+            System.out.println("Initial inputs replaced with " + results.length + " results.");
+        } else if (storeChoice.equals("a")) {
+            appendToInputs(results);
+            System.out.println("Appended " + results.length + " results to initial inputs.");
+        }
+        if (mappedDataset != null && (storeChoice.equals("r") || storeChoice.equals("a"))) {
+            System.out.println("Note: the mapped dataset is still active; load an empty path to use the initial inputs.");
+        }
+    }
+
+    // --- Element-wise Dataset Operations ---
+    // A + B, A - B, A * B, A / B and A * scalar over named datasets (see VectorMath)
+    private static void performVectorOperations() {
+        while (true) {
+            System.out.println("\nElement-wise Operations (datasets: 'inputs' or a saved name):");
+            System.out.println("1. Save the initial inputs as a named dataset");
+            System.out.println("2. Enter a new named dataset");
+            System.out.println("3. A + B, A - B, A * B or A / B element by element");
+            System.out.println("4. Multiply a dataset by a number");
+            System.out.println("5. List saved datasets");
+            System.out.println("6. Back to Calculator Menu");
+            System.out.print("Enter your choice: ");
+
+            int choice = getUserChoice();
+            try {
+                switch (choice) {
+                    case 1: {
+                        System.out.print("Name for the dataset: ");
+                        String name = console.nextLine().trim();
+                        DoubleSource source = activeSource();
+                        slots.put(name, source instanceof DoubleArray ? ((DoubleArray) source).snapshot() : source);
+                        System.out.println("Saved " + source.size() + " values as '" + name + "'.");
+                        break;
+                    }
+                    case 2: {
+                        System.out.print("Name for the dataset: ");
+                        String name = DatasetSlots.checkName(console.nextLine().trim()); // Before asking for numbers
+                        slots.put(name, getNumbersForNewDataStructure("dataset"));
+                        break;
+                    }
+                    case 3: {
+                        System.out.print("First dataset (A): ");
+                        DoubleSource a = namedDataset(console.nextLine().trim());
+                        System.out.print("Second dataset (B): ");
+                        DoubleSource b = namedDataset(console.nextLine().trim());
+                        System.out.println("1. A + B   2. A - B   3. A * B   4. A / B");
+                        System.out.print("Enter operation choice: ");
+                        int operation = getUserChoice();
+                        if (operation < 1 || operation > 4) {
+                            System.out.println("Invalid operation choice.");
+                            break;
+                        }
+                        VectorMath.Operator operator = VectorMath.Operator.values()[operation - 1];
+                        String[] names = {"add", "sub", "mul", "div"};
+                        long started = OperationMetrics.start();
+                        VectorMath.Result result = VectorMath.apply(operator, a, b);
+                        OperationMetrics.stop("vec", names[operation - 1], started, a.size());
+                        if (result.getDivisionsByZero() > 0) {
+                            System.out.println("Note: " + result.getDivisionsByZero() + " division(s) by zero were set to NaN.");
+                        }
+                        storeVectorResult("A " + operator.getSymbol() + " B", result.getValues());
+                        break;
+                    }
+                    case 4: {
+                        System.out.print("Dataset: ");
+                        DoubleSource a = namedDataset(console.nextLine().trim());
+                        System.out.print("Multiply by: ");
+                        double factor = getDoubleInput();
+                        long started = OperationMetrics.start();
+                        double[] values = VectorMath.scale(a, factor);
+                        OperationMetrics.stop("vec", "scale", started, a.size());
+                        storeVectorResult("Dataset * " + factor, values);
+                        break;
+                    }
+                    case 5:
+                        System.out.println(slots);
+                        break;
+                    case 6:
+                        return;
+                    default:
+                        System.out.println("Invalid choice. Please try again.");
+                }
+            } catch (IllegalArgumentException e) {
+                System.out.println("Error: " + e.getMessage());
+            }
+        }
+    }
+
+    private static DoubleSource namedDataset(String name) {
+        return name.equalsIgnoreCase(DatasetSlots.INPUTS) ? activeSource() : slots.get(name);
+    }
+
+    private static void storeVectorResult(String description, double[] values) {
+        DoubleArray result = new DoubleArray(0);
+        result.replaceAll(values, values.length);
+        System.out.println(description + " = " + result);
+        System.out.print("Save the result as (a name, 'inputs' to replace the initial inputs, or Enter to discard): ");
+        String name = console.nextLine().trim();
+        if (name.isEmpty()) {
+            return;
+        }
+        if (name.equalsIgnoreCase(DatasetSlots.INPUTS)) {
+            replaceInputs(values);
+            System.out.println("Initial inputs replaced with " + values.length + " values.");
+            if (mappedDataset != null) {
+                System.out.println("Note: the mapped dataset is still active; load an empty path to use the initial inputs.");
+            }
+        } else {
+            slots.put(name, result);
+            System.out.println("Saved as '" + name + "'.");
         }
     }
 
     // Helper method to get numbers for data structure if initialInputs is empty
-    private static ArrayList<Double> getNumbersForNewDataStructure(String type) {
+    private static DoubleArray getNumbersForNewDataStructure(String type) {
         System.out.println("\nNo initial numbers were provided, or you chose to use new numbers for this " + type + ".");
         System.out.print("How many numbers do you want to use for this " + type + "? ");
         int count = getIntInput();
-        ArrayList<Double> tempInputs = new ArrayList<>();
+        DoubleArray tempInputs = new DoubleArray(Math.max(count, 0));
         if (count <= 0) {
             System.out.println("No numbers will be used for this " + type + " operation.");
             return tempInputs;
@@ -225,12 +556,17 @@ public class DataStructureCalculator {
 
     // --- Array Operations ---
     private static void performArrayOperations() {
-        ArrayList<Double> currentArray;
-        if (initialInputs.isEmpty()) {
+        DoubleSource currentArray;
+        DoubleSource source = activeSource();
+        if (source.isEmpty()) {
             currentArray = getNumbersForNewDataStructure("Array");
             if (currentArray.isEmpty()) return;
+        } else if (source instanceof DoubleArray) {
+            long started = OperationMetrics.start();
+            currentArray = ((DoubleArray) source).snapshot(); // O(1); copied only if sorted
+            OperationMetrics.stop("array", "reset", started, 0);
         } else {
-            currentArray = new ArrayList<>(initialInputs);
+            currentArray = source; // Read-only mapped data is used in place
         }
 
         System.out.println("\n--- Array Operations ---");
@@ -245,20 +581,26 @@ public class DataStructureCalculator {
             System.out.println("5. Find Maximum Element");
             System.out.println("6. Sort Array (Ascending)");
             System.out.println("7. Search for an Element");
-            System.out.println("8. Back to Main Menu");
+            System.out.println("8. Variance and Standard Deviation");
+            System.out.println("9. Find K-th Smallest Element");
+            System.out.println("10. Median and Percentiles");
+            System.out.println("11. Top-k and Bottom-k Elements");
+            System.out.println("12. Back to Main Menu");
             System.out.print("Enter your choice: ");
 
             int choice = getUserChoice();
 
             switch (choice) {
                 case 1:
-                    System.out.println("Array: " + currentArray);
+                    display("array", "Array: ", currentArray);
                     break;
                 case 2:
                     if (currentArray.isEmpty()) {
                         System.out.println("Array is empty, cannot calculate sum.");
                     } else {
-                        double sum = currentArray.stream().mapToDouble(Double::doubleValue).sum();
+                        long started = OperationMetrics.start();
+                        double sum = currentArray.getSum();
+                        OperationMetrics.stop("array", "sum", started, currentArray.size());
                         System.out.println("Sum of elements: " + sum);
                     }
                     break;
@@ -266,56 +608,172 @@ public class DataStructureCalculator {
                     if (currentArray.isEmpty()) {
                         System.out.println("Array is empty, cannot calculate average.");
                     } else {
-                        double avg = currentArray.stream().mapToDouble(Double::doubleValue).average().orElse(0.0);
-                        System.out.println("Average of elements: " + String.format("%.2f", avg));
+                        long started = OperationMetrics.start();
+                        double average = currentArray.getAverage();
+                        OperationMetrics.stop("array", "average", started, currentArray.size());
+                        System.out.println("Average of elements: " + String.format("%.2f", average));
                     }
                     break;
                 case 4:
                     if (currentArray.isEmpty()) {
                         System.out.println("Array is empty, no minimum element.");
                     } else {
-                        System.out.println("Minimum element: " + Collections.min(currentArray));
+                        long started = OperationMetrics.start();
+                        double min = currentArray.getMin();
+                        OperationMetrics.stop("array", "min", started, currentArray.size());
+                        System.out.println("Minimum element: " + min);
                     }
                     break;
                 case 5:
                     if (currentArray.isEmpty()) {
                         System.out.println("Array is empty, no maximum element.");
                     } else {
-                        System.out.println("Maximum element: " + Collections.max(currentArray));
+                        long started = OperationMetrics.start();
+                        double max = currentArray.getMax();
+                        OperationMetrics.stop("array", "max", started, currentArray.size());
+                        System.out.println("Maximum element: " + max);
                     }
                     break;
-                case 6:
-                    Collections.sort(currentArray);
+                case 6: {
+                    if (!(currentArray instanceof DoubleArray)) {
+                        System.out.println("Copying " + currentArray.size() + " values from the mapped file into memory to sort them.");
+                    }
+                    long started = OperationMetrics.start();
+                    if (!(currentArray instanceof DoubleArray)) {
+                        currentArray = DoubleArray.copyOf(currentArray);
+                        ((DoubleArray) currentArray).sort();
+                    } else if (source == initialInputs && !source.isEmpty()) {
+                        currentArray = sortedInitialInputs();
+                    } else {
+                        ((DoubleArray) currentArray).sort();
+                    }
+                    OperationMetrics.stop("array", "sort", started, currentArray.size());
                     System.out.println("Array sorted: " + currentArray);
                     break;
-                case 7:
+                }
+                case 7: {
                     System.out.print("Enter element to search: ");
                     double searchElement = getDoubleInput();
-                    if (currentArray.contains(searchElement)) {
-                        System.out.println(searchElement + " found at index: " + currentArray.indexOf(searchElement));
+                    long started = OperationMetrics.start();
+                    int foundIndex = currentArray.indexOf(searchElement);
+                    OperationMetrics.stop("array", "search", started, foundIndex >= 0 ? foundIndex + 1 : currentArray.size());
+                    if (foundIndex >= 0) {
+                        System.out.println(searchElement + " found at index: " + foundIndex);
                     } else {
                         System.out.println(searchElement + " not found in the array.");
                     }
                     break;
+                }
                 case 8:
+                    if (currentArray.isEmpty()) {
+                        System.out.println("Array is empty, cannot calculate variance.");
+                    } else {
+                        long started = OperationMetrics.start();
+                        double variance = currentArray.getVariance();
+                        double standardDeviation = currentArray.getStandardDeviation();
+                        OperationMetrics.stop("array", "variance", started, currentArray.size());
+                        System.out.println("Variance: " + String.format("%.4f", variance));
+                        System.out.println("Standard deviation: " + String.format("%.4f", standardDeviation));
+                    }
+                    break;
+                case 9:
+                    if (currentArray.isEmpty()) {
+                        System.out.println("Array is empty, no k-th smallest element.");
+                        break;
+                    }
+                    System.out.print("Enter k (1 = smallest, " + currentArray.size() + " = largest): ");
+                    int k = getIntInput();
+                    if (k < 1 || k > currentArray.size()) {
+                        System.out.println("Invalid k. It must be between 1 and " + currentArray.size() + ".");
+                    } else {
+                        long started = OperationMetrics.start();
+                        double kth = OrderStatistics.select(currentArray, k - 1);
+                        OperationMetrics.stop("array", "kth", started, currentArray.size());
+                        System.out.println(k + "-th smallest element: " + kth);
+                    }
+                    break;
+                case 10:
+                    if (currentArray.isEmpty()) {
+                        System.out.println("Array is empty, no median.");
+                        break;
+                    }
+                    long medianStarted = OperationMetrics.start();
+                    double median = OrderStatistics.median(currentArray);
+                    OperationMetrics.stop("array", "median", medianStarted, currentArray.size());
+                    System.out.println("Median: " + median);
+                    System.out.print("Enter a percentile (0-100), or -1 to skip: ");
+                    double percent = getDoubleInput();
+                    if (percent >= 0 && percent <= 100) {
+                        long started = OperationMetrics.start();
+                        double percentile = OrderStatistics.percentile(currentArray, percent);
+                        OperationMetrics.stop("array", "percentile", started, currentArray.size());
+                        System.out.println(percent + "th percentile: " + percentile);
+                    } else if (percent != -1) {
+                        System.out.println("Invalid percentile. It must be between 0 and 100.");
+                    }
+                    break;
+                case 11:
+                    if (currentArray.isEmpty()) {
+                        System.out.println("Array is empty, no top or bottom elements.");
+                        break;
+                    }
+                    System.out.print("Enter k: ");
+                    int count = getIntInput();
+                    if (count < 1) {
+                        System.out.println("Invalid k. It must be at least 1.");
+                    } else {
+                        long started = OperationMetrics.start();
+                        double[] top = OrderStatistics.top(currentArray, count);
+                        OperationMetrics.stop("array", "top", started, currentArray.size());
+                        started = OperationMetrics.start();
+                        double[] bottom = OrderStatistics.bottom(currentArray, count);
+                        OperationMetrics.stop("array", "bottom", started, currentArray.size());
+                        System.out.println("Top " + top.length + " (largest first): " + DisplayWindow.format(top.length, i -> top[i]));
+                        System.out.println("Bottom " + bottom.length + " (smallest first): " + DisplayWindow.format(bottom.length, i -> bottom[i]));
+                    }
+                    break;
+                case 12:
                     return;
                 default:
                     System.out.println("Invalid choice. Please try again.");
             }
             System.out.println("\nPress Enter to continue Array operations...");
-            scanner.nextLine();
+            console.nextLine();
         }
     }
 
 
+    // Sorted copy of initialInputs. When only appends happened since the last sort
+    // (e.g. calculator results), just those values are sorted and merged in. The copy
+    // is softly held, so the GC may reclaim it under memory pressure.
+    private static DoubleArray sortedInitialInputs() {
+        int size = initialInputs.size();
+        DoubleArray sorted = sortedInputs != null ? sortedInputs.get() : null;
+        if (sorted == null || sortedInputsEdits != initialInputs.getEditCount() || sortedInputsCount > size) {
+            sorted = initialInputs.snapshot();
+        } else if (sortedInputsCount < size) {
+            double[] appended = new double[size - sortedInputsCount];
+            initialInputs.copyTo(sortedInputsCount, appended, 0, appended.length);
+            sorted.addAll(appended, 0, appended.length);
+        }
+        sorted.sort();
+        sortedInputs = new SoftReference<>(sorted);
+        sortedInputsCount = size;
+        sortedInputsEdits = initialInputs.getEditCount();
+        return sorted.snapshot();
+    }
+
     // --- Linked List Operations ---
     private static void performLinkedListOperations() {
-        LinkedList<Double> currentList;
-        if (initialInputs.isEmpty()) {
-            currentList = new LinkedList<>(getNumbersForNewDataStructure("Linked List"));
+        ChunkedDoubleList currentList;
+        DoubleSource source = activeSource();
+        if (source.isEmpty()) {
+            currentList = ChunkedDoubleList.of(getNumbersForNewDataStructure("Linked List"));
             if (currentList.isEmpty()) return;
         } else {
-            currentList = new LinkedList<>(initialInputs);
+            long started = OperationMetrics.start();
+            currentList = ChunkedDoubleList.of(source);
+            OperationMetrics.stop("list", "reset", started, 0);
         }
 
         System.out.println("\n--- Linked List Operations ---");
@@ -335,19 +793,26 @@ public class DataStructureCalculator {
             System.out.print("Enter your choice: ");
 
             int choice = getUserChoice();
+            long started;
 
             switch (choice) {
                 case 1:
-                    System.out.println("List: " + currentList);
+                    display("list", "List: ", currentList);
                     break;
                 case 2:
                     System.out.print("Enter element to add at start: ");
-                    currentList.addFirst(getDoubleInput());
+                    double first = getDoubleInput();
+                    started = OperationMetrics.start();
+                    currentList.addFirst(first);
+                    OperationMetrics.stop("list", "addfirst", started, 1);
                     System.out.println("Element added. Current List: " + currentList);
                     break;
                 case 3:
                     System.out.print("Enter element to add at end: ");
-                    currentList.addLast(getDoubleInput());
+                    double last = getDoubleInput();
+                    started = OperationMetrics.start();
+                    currentList.addLast(last);
+                    OperationMetrics.stop("list", "addlast", started, 1);
                     System.out.println("Element added. Current List: " + currentList);
                     break;
                 case 4:
@@ -356,7 +821,9 @@ public class DataStructureCalculator {
                     System.out.print("Enter position (0-indexed): ");
                     int posToAdd = getIntInput();
                     if (posToAdd >= 0 && posToAdd <= currentList.size()) {
+                        started = OperationMetrics.start();
                         currentList.add(posToAdd, elementToAdd);
+                        OperationMetrics.stop("list", "add", started, 1);
                         System.out.println("Element added. Current List: " + currentList);
                     } else {
                         System.out.println("Invalid position.");
@@ -364,7 +831,10 @@ public class DataStructureCalculator {
                     break;
                 case 5:
                     if (!currentList.isEmpty()) {
-                        System.out.println("Removed from start: " + currentList.removeFirst());
+                        started = OperationMetrics.start();
+                        double removed = currentList.removeFirst();
+                        OperationMetrics.stop("list", "removefirst", started, 1);
+                        System.out.println("Removed from start: " + removed);
                         System.out.println("Current List: " + currentList);
                     } else {
                         System.out.println("List is empty.");
@@ -372,7 +842,10 @@ public class DataStructureCalculator {
                     break;
                 case 6:
                     if (!currentList.isEmpty()) {
-                        System.out.println("Removed from end: " + currentList.removeLast());
+                        started = OperationMetrics.start();
+                        double removed = currentList.removeLast();
+                        OperationMetrics.stop("list", "removelast", started, 1);
+                        System.out.println("Removed from end: " + removed);
                         System.out.println("Current List: " + currentList);
                     } else {
                         System.out.println("List is empty.");
@@ -386,7 +859,10 @@ public class DataStructureCalculator {
                     System.out.print("Enter position to remove (0-indexed): ");
                     int posToRemove = getIntInput();
                     if (posToRemove >= 0 && posToRemove < currentList.size()) {
-                        System.out.println("Removed from position " + posToRemove + ": " + currentList.remove(posToRemove));
+                        started = OperationMetrics.start();
+                        double removed = currentList.remove(posToRemove);
+                        OperationMetrics.stop("list", "remove", started, 1);
+                        System.out.println("Removed from position " + posToRemove + ": " + removed);
                         System.out.println("Current List: " + currentList);
                     } else {
                         System.out.println("Invalid position.");
@@ -395,8 +871,11 @@ public class DataStructureCalculator {
                 case 8:
                     System.out.print("Enter element to search: ");
                     double searchElement = getDoubleInput();
-                    if (currentList.contains(searchElement)) {
-                        System.out.println(searchElement + " found at index: " + currentList.indexOf(searchElement));
+                    started = OperationMetrics.start();
+                    int foundAt = currentList.indexOf(searchElement);
+                    OperationMetrics.stop("list", "search", started, foundAt >= 0 ? foundAt + 1 : currentList.size());
+                    if (foundAt >= 0) {
+                        System.out.println(searchElement + " found at index: " + foundAt);
                     } else {
                         System.out.println(searchElement + " not found in the list.");
                     }
@@ -407,19 +886,22 @@ public class DataStructureCalculator {
                     System.out.println("Invalid choice. Please try again.");
             }
             System.out.println("\nPress Enter to continue Linked List operations...");
-            scanner.nextLine();
+            console.nextLine();
         }
     }
 
 
     // --- Queue Operations ---
     private static void performQueueOperations() {
-        Queue<Double> currentQueue;
-        if (initialInputs.isEmpty()) {
-            currentQueue = new LinkedList<>(getNumbersForNewDataStructure("Queue"));
+        DoubleRingQueue currentQueue;
+        DoubleSource source = activeSource();
+        if (source.isEmpty()) {
+            currentQueue = DoubleRingQueue.of(getNumbersForNewDataStructure("Queue"));
             if (currentQueue.isEmpty()) return;
         } else {
-            currentQueue = new LinkedList<>(initialInputs);
+            long started = OperationMetrics.start();
+            currentQueue = DoubleRingQueue.of(source);
+            OperationMetrics.stop("queue", "reset", started, 0);
         }
 
         System.out.println("\n--- Queue Operations ---");
@@ -433,23 +915,35 @@ public class DataStructureCalculator {
             System.out.println("4. Peek (View Front Element)");
             System.out.println("5. Shrink Queue (Remove multiple from front)");
             System.out.println("6. Rotate Queue (Shift elements)");
-            System.out.println("7. Back to Main Menu");
+            System.out.println("7. Set Capacity Limit");
+            System.out.println("8. Back to Main Menu");
             System.out.print("Enter your choice: ");
 
             int choice = getUserChoice();
+            long started;
 
             switch (choice) {
                 case 1:
-                    System.out.println("Queue: " + currentQueue);
+                    display("queue", "Queue: ", currentQueue);
                     break;
                 case 2:
                     System.out.print("Enter element to enqueue: ");
-                    currentQueue.offer(getDoubleInput());
-                    System.out.println("Element enqueued. Current Queue: " + currentQueue);
+                    double element = getDoubleInput();
+                    started = OperationMetrics.start();
+                    boolean enqueued = currentQueue.offer(element);
+                    OperationMetrics.stop("queue", "enqueue", started, 1);
+                    if (enqueued) {
+                        System.out.println("Element enqueued. Current Queue: " + currentQueue);
+                    } else {
+                        System.out.println("Queue is full (capacity " + currentQueue.getMaxCapacity() + "). Element not enqueued.");
+                    }
                     break;
                 case 3:
                     if (!currentQueue.isEmpty()) {
-                        System.out.println("Dequeued: " + currentQueue.poll());
+                        started = OperationMetrics.start();
+                        double dequeued = currentQueue.poll();
+                        OperationMetrics.stop("queue", "dequeue", started, 1);
+                        System.out.println("Dequeued: " + dequeued);
                         System.out.println("Current Queue: " + currentQueue);
                     } else {
                         System.out.println("Queue is empty.");
@@ -457,7 +951,10 @@ public class DataStructureCalculator {
                     break;
                 case 4:
                     if (!currentQueue.isEmpty()) {
-                        System.out.println("Front element (peek): " + currentQueue.peek());
+                        started = OperationMetrics.start();
+                        double front = currentQueue.peek();
+                        OperationMetrics.stop("queue", "peek", started, 1);
+                        System.out.println("Front element (peek): " + front);
                     } else {
                         System.out.println("Queue is empty.");
                     }
@@ -469,17 +966,29 @@ public class DataStructureCalculator {
                     rotateQueue(currentQueue);
                     break;
                 case 7:
+                    System.out.print("Enter maximum number of elements (0 for unlimited): ");
+                    int maxCapacity = getIntInput();
+                    started = OperationMetrics.start();
+                    boolean limited = currentQueue.setMaxCapacity(maxCapacity);
+                    OperationMetrics.stop("queue", "capacity", started, 0);
+                    if (limited) {
+                        System.out.println(maxCapacity == 0 ? "Queue is now unbounded." : "Queue capacity limited to " + maxCapacity + " elements.");
+                    } else {
+                        System.out.println("Invalid capacity. It must be 0 or at least the current size (" + currentQueue.size() + ").");
+                    }
+                    break;
+                case 8:
                     return;
                 default:
                     System.out.println("Invalid choice. Please try again.");
             }
             System.out.println("\nPress Enter to continue Queue operations...");
-            scanner.nextLine();
+            console.nextLine();
         }
     }
 
 
-    private static void shrinkQueue(Queue<Double> queue) {
+    private static void shrinkQueue(DoubleRingQueue queue) {
         if (queue.isEmpty()) {
             System.out.println("Queue is empty, nothing to shrink.");
             return;
@@ -492,21 +1001,18 @@ public class DataStructureCalculator {
             return;
         }
 
-        int removedCount = 0;
-        for (int i = 0; i < numToShrink; i++) {
-            if (!queue.isEmpty()) {
-                System.out.println("Removed: " + queue.poll());
-                removedCount++;
-            } else {
-                System.out.println("Queue became empty. Cannot remove more elements.");
-                break;
-            }
+        if (numToShrink > queue.size()) {
+            System.out.println("Queue only has " + queue.size() + " element(s). Removing all of them.");
         }
+        System.out.println("Removed: " + queue.toString(0, numToShrink));
+        long started = OperationMetrics.start();
+        int removedCount = queue.shrink(numToShrink);
+        OperationMetrics.stop("queue", "shrink", started, removedCount);
         System.out.println(removedCount + " element(s) removed.");
         System.out.println("Remaining elements: " + queue);
     }
 
-    private static void rotateQueue(Queue<Double> queue) {
+    private static void rotateQueue(DoubleRingQueue queue) {
         if (queue.isEmpty() || queue.size() == 1) {
             System.out.println("Queue is too small to rotate effectively.");
             return;
@@ -514,18 +1020,10 @@ public class DataStructureCalculator {
         System.out.print("How many positions to rotate (positive for left/forward, negative for right/backward)? ");
         int positions = getIntInput();
 
-        int actualRotations = positions % queue.size();
-        if (actualRotations < 0) {
-            actualRotations += queue.size();
-        }
-
         System.out.println("Initial Queue: " + queue);
-        for (int i = 0; i < actualRotations; i++) {
-            Double front = queue.poll();
-            if (front != null) {
-                queue.offer(front);
-            }
-        }
-        System.out.println("Queue rotated by " + positions + " positions. New Queue: " + queue);
-    }
+        long started = OperationMetrics.start();
+        queue.rotate(positions);
+        OperationMetrics.stop("queue", "rotate", started, Math.min(Math.abs((long) positions), queue.size()));
+        System.out.println("Queue rotated by " + positions + " positions. New Queue: " + queue);
+    }
 }
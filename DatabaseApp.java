@@ -1,5 +1,8 @@
 import javafx.application.Application;
+import javafx.application.Platform;
+import javafx.concurrent.Task;
 import javafx.geometry.Insets;
+import javafx.geometry.Pos;
 import javafx.scene.Scene;
 import javafx.scene.control.*;
 import javafx.scene.layout.BorderPane;
@@ -7,15 +10,38 @@ import javafx.scene.layout.HBox;
 import javafx.scene.layout.VBox;
 import javafx.stage.Stage;
 import java.sql.*;
+import javafx.beans.InvalidationListener;
 import javafx.collections.FXCollections;
+import javafx.collections.ObservableListBase;
 import javafx.collections.ObservableList;
 import javafx.scene.control.cell.PropertyValueFactory;
+import javafx.scene.control.skin.VirtualFlow;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.beans.property.BooleanProperty;
 import javafx.beans.property.SimpleBooleanProperty;
 import javafx.beans.property.StringProperty;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 public class DatabaseApp extends Application {
 
@@ -23,19 +49,23 @@ public class DatabaseApp extends Application {
     public static class DBUtil {
 
         // !!! IMPORTANT: CHANGE THESE TO YOUR ACTUAL MySQL CREDENTIALS !!!
-        private static final String DB_URL = "jdbc:mysql://localhost:3306/testdb";
-        private static final String DB_USER = "root";
-        private static final String DB_PASSWORD = "12345";
+        // (or override them with -Ddb.url=... -Ddb.user=... -Ddb.password=..., e.g.
+        // -Ddb.url=jdbc:h2:mem:testdb;DB_CLOSE_DELAY=-1 to run against an embedded database)
+        private static final String DB_URL = System.getProperty("db.url", "jdbc:mysql://localhost:3306/testdb");
+        private static final String DB_USER = System.getProperty("db.user", "root");
+        private static final String DB_PASSWORD = System.getProperty("db.password", "12345");
 
+        private static final int POOL_MAX_SIZE = 8;
+        private static final int POOL_MIN_IDLE = 2;
+
+        // Rows per round trip when streaming a table (-Ddb.fetchSize)
+        private static final int FETCH_SIZE = Integer.getInteger("db.fetchSize", 1000);
+
+        private static ConnectionPool pool;
+
+        // Borrows a pooled connection; closing it (or closeConnection) returns it to the pool
         public static Connection getConnection() throws SQLException {
-            try {
-                Class.forName("com.mysql.cj.jdbc.Driver");
-                return DriverManager.getConnection(DB_URL, DB_USER, DB_PASSWORD);
-            } catch (ClassNotFoundException e) {
-                System.err.println("MySQL JDBC Driver not found.");
-                e.printStackTrace();
-                throw new SQLException("Database driver not found.", e);
-            }
+            return getPool().borrow();
         }
 
         public static void closeConnection(Connection connection) {
@@ -47,16 +77,595 @@ public class DatabaseApp extends Application {
                 }
             }
         }
+
+        public static synchronized ConnectionPool getPool() throws SQLException {
+            if (pool == null) {
+                if (DB_URL.startsWith("jdbc:mysql:")) {
+                    try {
+                        Class.forName("com.mysql.cj.jdbc.Driver");
+                    } catch (ClassNotFoundException e) {
+                        System.err.println("MySQL JDBC Driver not found.");
+                        e.printStackTrace();
+                        throw new SQLException("Database driver not found.", e);
+                    }
+                }
+                pool = new ConnectionPool(DB_URL, DB_USER, DB_PASSWORD, POOL_MAX_SIZE, POOL_MIN_IDLE);
+            }
+            return pool;
+        }
+
+        // MySQL Connector/J ignores a positive fetch size unless the URL has
+        // useCursorFetch=true (server-side cursor) and buffers the whole result instead;
+        // Integer.MIN_VALUE makes it stream rows one by one without a cursor
+        public static int getStreamingFetchSize() {
+            if (DB_URL.startsWith("jdbc:mysql:") && !DB_URL.contains("useCursorFetch=true")) {
+                return Integer.MIN_VALUE;
+            }
+            return FETCH_SIZE;
+        }
+
+        // Opens the minimum number of idle connections ahead of the first query
+        public static void warmUp() {
+            try {
+                getPool().fillToMinimum();
+            } catch (SQLException e) {
+                System.err.println("Could not pre-open database connections: " + e.getMessage());
+            }
+        }
+
+        public static synchronized String getPoolStats() {
+            return pool != null ? pool.getStats() : "Connection pool not started.";
+        }
+
+        public static synchronized void shutdown() {
+            if (pool != null) {
+                pool.close();
+                pool = null;
+            }
+        }
     }
     // --- End DBUtil Class ---
 
+    // --- ConnectionPool Class ---
+    // Bounded pool of physical connections. Borrowers get a proxy whose close() hands
+    // the connection back (rolled back if a transaction was left open, statements
+    // closed, auto-commit restored). A connection that sat idle for a while is
+    // validated before it is handed out; a background task closes connections idle
+    // for too long, down to the minimum, and tops the pool back up to it. When all
+    // connections are in use, borrowers wait up to maxWaitMillis (10 s by default).
+    public static class ConnectionPool {
+
+        private static final long DEFAULT_MAX_WAIT_MILLIS = 10_000;
+        private static final long IDLE_TIMEOUT_MILLIS = 5 * 60_000;
+        private static final long VALIDATE_AFTER_IDLE_MILLIS = 5_000; // Recently used connections are trusted
+        private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+        private static final long EVICTION_INTERVAL_SECONDS = 30;
+
+        private final String url;
+        private final String user;
+        private final String password;
+        private final int maxSize;
+        private final int minIdle;
+        private final long maxWaitMillis;
+
+        private final Object lock = new Object();
+        private final Deque<PooledConnection> idle = new ArrayDeque<>(); // Most recently returned first
+        private int total; // Open or being opened, guarded by lock
+        private int active; // Handed out, guarded by lock
+        private boolean closed;
+        private final ScheduledExecutorService evictor;
+
+        // Metrics, guarded by lock
+        private final long startNanos = System.nanoTime();
+        private long created;
+        private long borrows;
+        private long totalWaitNanos;
+        private long maxWaitNanos;
+        private long timeouts;
+        private long validationFailures;
+        private long evicted;
+
+        public ConnectionPool(String url, String user, String password, int maxSize, int minIdle) {
+            this(url, user, password, maxSize, minIdle, DEFAULT_MAX_WAIT_MILLIS);
+        }
+
+        public ConnectionPool(String url, String user, String password, int maxSize, int minIdle, long maxWaitMillis) {
+            this.url = url;
+            this.user = user;
+            this.password = password;
+            this.maxSize = maxSize;
+            this.minIdle = Math.min(minIdle, maxSize);
+            this.maxWaitMillis = maxWaitMillis;
+            evictor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "connection-pool-evictor");
+                thread.setDaemon(true);
+                return thread;
+            });
+            evictor.scheduleWithFixedDelay(this::evictIdle, EVICTION_INTERVAL_SECONDS, EVICTION_INTERVAL_SECONDS, TimeUnit.SECONDS);
+        }
+
+        public Connection borrow() throws SQLException {
+            long start = System.nanoTime();
+            long deadline = start + TimeUnit.MILLISECONDS.toNanos(maxWaitMillis);
+            while (true) {
+                PooledConnection candidate = null;
+                boolean create = false;
+                synchronized (lock) {
+                    while (candidate == null && !create) {
+                        if (closed) {
+                            throw new SQLException("Connection pool is closed.");
+                        }
+                        candidate = idle.pollFirst();
+                        if (candidate == null && total < maxSize) {
+                            total++;
+                            create = true;
+                        } else if (candidate == null) {
+                            long remaining = deadline - System.nanoTime();
+                            if (remaining <= 0) {
+                                timeouts++;
+                                throw new SQLException("Timed out after " + maxWaitMillis + " ms waiting for a database connection ("
+                                        + active + " in use).");
+                            }
+                            try {
+                                TimeUnit.NANOSECONDS.timedWait(lock, remaining);
+                            } catch (InterruptedException e) {
+                                Thread.currentThread().interrupt();
+                                throw new SQLException("Interrupted while waiting for a database connection.", e);
+                            }
+                        }
+                    }
+                    active++;
+                }
+                if (create) {
+                    try {
+                        candidate = open();
+                    } catch (SQLException e) {
+                        synchronized (lock) {
+                            total--;
+                            active--;
+                            lock.notifyAll();
+                        }
+                        throw e;
+                    }
+                } else if (!isUsable(candidate)) {
+                    discard(candidate, true);
+                    continue;
+                }
+                long waited = System.nanoTime() - start;
+                synchronized (lock) {
+                    borrows++;
+                    totalWaitNanos += waited;
+                    maxWaitNanos = Math.max(maxWaitNanos, waited);
+                }
+                return candidate.lend();
+            }
+        }
+
+        // Opens connections until minIdle are idle (or the pool is full)
+        public void fillToMinimum() throws SQLException {
+            while (true) {
+                synchronized (lock) {
+                    if (closed || idle.size() >= minIdle || total >= maxSize) {
+                        return;
+                    }
+                    total++;
+                }
+                PooledConnection connection;
+                try {
+                    connection = open();
+                } catch (SQLException e) {
+                    synchronized (lock) {
+                        total--;
+                    }
+                    throw e;
+                }
+                synchronized (lock) {
+                    idle.addLast(connection);
+                    lock.notifyAll();
+                }
+            }
+        }
+
+        public void close() {
+            evictor.shutdownNow();
+            List<PooledConnection> toClose;
+            synchronized (lock) {
+                closed = true;
+                toClose = new ArrayList<>(idle);
+                total -= idle.size();
+                idle.clear();
+                lock.notifyAll();
+            }
+            for (PooledConnection connection : toClose) {
+                connection.closePhysical();
+            }
+        }
+
+        public int getActive() {
+            synchronized (lock) {
+                return active;
+            }
+        }
+
+        public int getIdle() {
+            synchronized (lock) {
+                return idle.size();
+            }
+        }
+
+        public long getCreated() {
+            synchronized (lock) {
+                return created;
+            }
+        }
+
+        // Physical connections opened per minute since the pool started
+        public double getCreationRatePerMinute() {
+            double minutes = (System.nanoTime() - startNanos) / 60e9;
+            synchronized (lock) {
+                return minutes > 0 ? created / minutes : 0;
+            }
+        }
+
+        public long getTimeouts() {
+            synchronized (lock) {
+                return timeouts;
+            }
+        }
+
+        public double getAverageWaitMillis() {
+            synchronized (lock) {
+                return borrows == 0 ? 0 : totalWaitNanos / 1e6 / borrows;
+            }
+        }
+
+        public double getMaxWaitMillis() {
+            synchronized (lock) {
+                return maxWaitNanos / 1e6;
+            }
+        }
+
+        public String getStats() {
+            synchronized (lock) {
+                return "Connections: " + active + " active, " + idle.size() + " idle (max " + maxSize + "); "
+                        + created + " created (" + String.format("%.2f", getCreationRatePerMinute()) + "/min), "
+                        + evicted + " evicted, " + validationFailures + " failed validation; "
+                        + borrows + " borrows, wait avg " + String.format("%.2f", getAverageWaitMillis())
+                        + " ms, max " + String.format("%.2f", getMaxWaitMillis()) + " ms, " + timeouts + " timeouts";
+            }
+        }
+
+        private PooledConnection open() throws SQLException {
+            Connection physical = DriverManager.getConnection(url, user, password);
+            synchronized (lock) {
+                created++;
+            }
+            return new PooledConnection(physical);
+        }
+
+        private boolean isUsable(PooledConnection connection) {
+            if (System.currentTimeMillis() - connection.lastReturned < VALIDATE_AFTER_IDLE_MILLIS) {
+                return true;
+            }
+            try {
+                if (connection.physical.isValid(VALIDATION_TIMEOUT_SECONDS)) {
+                    return true;
+                }
+            } catch (SQLException e) {
+                // Treated as invalid
+            }
+            synchronized (lock) {
+                validationFailures++;
+            }
+            return false;
+        }
+
+        // Closes a connection the pool gives up on; wasActive when it had been borrowed
+        private void discard(PooledConnection connection, boolean wasActive) {
+            connection.closePhysical();
+            synchronized (lock) {
+                total--;
+                if (wasActive) active--;
+                lock.notifyAll();
+            }
+        }
+
+        private void release(PooledConnection connection) {
+            boolean healthy = connection.reset();
+            synchronized (lock) {
+                if (healthy && !closed) {
+                    active--;
+                    connection.lastReturned = System.currentTimeMillis();
+                    idle.addFirst(connection);
+                    lock.notifyAll();
+                    return;
+                }
+            }
+            discard(connection, true);
+        }
+
+        private void evictIdle() {
+            List<PooledConnection> expired = new ArrayList<>();
+            long now = System.currentTimeMillis();
+            synchronized (lock) {
+                // The least recently used connections are at the end
+                while (idle.size() > minIdle && now - idle.peekLast().lastReturned > IDLE_TIMEOUT_MILLIS) {
+                    expired.add(idle.pollLast());
+                    total--;
+                    evicted++;
+                }
+            }
+            for (PooledConnection connection : expired) {
+                connection.closePhysical();
+            }
+            try {
+                fillToMinimum();
+            } catch (SQLException e) {
+                System.err.println("Could not refill the connection pool: " + e.getMessage());
+            }
+        }
+
+        // --- Pooled Connection Class ---
+        private final class PooledConnection implements InvocationHandler {
+            private final Connection physical;
+            private final List<Statement> statements = new ArrayList<>(); // Opened by the current borrower
+            private Connection proxy; // Current borrower's handle; null while idle
+            private long lastReturned = System.currentTimeMillis();
+
+            PooledConnection(Connection physical) {
+                this.physical = physical;
+            }
+
+            Connection lend() {
+                proxy = (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class}, this);
+                return proxy;
+            }
+
+            @Override
+            public Object invoke(Object target, Method method, Object[] args) throws Throwable {
+                String name = method.getName();
+                if (name.equals("close")) {
+                    if (proxy == target) {
+                        proxy = null;
+                        release(this);
+                    }
+                    return null;
+                }
+                if (name.equals("isClosed")) {
+                    return proxy != target;
+                }
+                if (name.equals("equals")) {
+                    return target == args[0];
+                }
+                if (name.equals("hashCode")) {
+                    return System.identityHashCode(target);
+                }
+                if (name.equals("toString")) {
+                    return "Pooled " + physical;
+                }
+                if (proxy != target) {
+                    throw new SQLException("Connection is closed.");
+                }
+                try {
+                    Object result = method.invoke(physical, args);
+                    if (result instanceof Statement) {
+                        statements.add((Statement) result);
+                    }
+                    return result;
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+            }
+
+            // Makes the connection fit for the next borrower; false if it is broken
+            boolean reset() {
+                try {
+                    for (Statement statement : statements) {
+                        statement.close();
+                    }
+                    statements.clear();
+                    if (!physical.getAutoCommit()) {
+                        physical.rollback();
+                        physical.setAutoCommit(true);
+                    }
+                    physical.clearWarnings();
+                    return true;
+                } catch (SQLException e) {
+                    return false;
+                }
+            }
+
+            void closePhysical() {
+                try {
+                    physical.close();
+                } catch (SQLException e) {
+                    System.err.println("Error closing connection: " + e.getMessage());
+                }
+            }
+        }
+        // --- End Pooled Connection Class ---
+    }
+    // --- End ConnectionPool Class ---
+
+    // --- SchemaCache Class ---
+    // Table names, and each table's columns, column types and primary key, read from
+    // DatabaseMetaData once and then shared by every operation, so a write no longer
+    // starts with metadata round trips. Every TTL_SECONDS a background task reads the
+    // cached entries again, so changes made outside this app show up; createTable()
+    // drops everything at once. A read that started before an invalidation is not
+    // stored, so it cannot bring back the old schema.
+    public static class SchemaCache {
+        private static final long TTL_SECONDS = 60;
+
+        private volatile List<String> tables; // Null until read
+        private final Map<String, TableSchema> schemas = new ConcurrentHashMap<>();
+        private long generation; // Bumped by invalidate(), guarded by this
+        private final ScheduledExecutorService refresher;
+
+        public SchemaCache() {
+            refresher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "schema-cache-refresh");
+                thread.setDaemon(true);
+                return thread;
+            });
+            refresher.scheduleWithFixedDelay(this::refresh, TTL_SECONDS, TTL_SECONDS, TimeUnit.SECONDS);
+        }
+
+        public List<String> getTables() throws SQLException {
+            List<String> cached = tables;
+            if (cached == null) {
+                long g = currentGeneration();
+                cached = readTables();
+                synchronized (this) {
+                    if (g == generation) tables = cached;
+                }
+            }
+            return cached;
+        }
+
+        public TableSchema getTable(String tableName) throws SQLException {
+            TableSchema cached = schemas.get(tableName);
+            if (cached == null) {
+                long g = currentGeneration();
+                cached = readTable(tableName);
+                synchronized (this) {
+                    if (g == generation) schemas.put(tableName, cached);
+                }
+            }
+            return cached;
+        }
+
+        public synchronized void invalidate() {
+            generation++;
+            tables = null;
+            schemas.clear();
+        }
+
+        // After a statement failed in a way that may mean the cached columns are out of date
+        public void invalidate(String tableName) {
+            schemas.remove(tableName);
+        }
+
+        public void close() {
+            refresher.shutdownNow();
+        }
+
+        private synchronized long currentGeneration() {
+            return generation;
+        }
+
+        private void refresh() {
+            try {
+                long g = currentGeneration();
+                List<String> refreshedTables = tables != null ? readTables() : null;
+                Map<String, TableSchema> refreshed = new LinkedHashMap<>();
+                for (String tableName : schemas.keySet()) {
+                    refreshed.put(tableName, readTable(tableName));
+                }
+                synchronized (this) {
+                    if (g == generation) {
+                        if (refreshedTables != null) tables = refreshedTables;
+                        schemas.putAll(refreshed);
+                    }
+                }
+            } catch (SQLException e) {
+                System.err.println("Could not refresh the schema cache: " + e.getMessage());
+            }
+        }
+
+        private static List<String> readTables() throws SQLException {
+            List<String> tableNames = new ArrayList<>();
+            Connection conn = null;
+            ResultSet rs = null;
+            try {
+                conn = DBUtil.getConnection();
+                DatabaseMetaData metaData = conn.getMetaData();
+                // Only the tables of the database named in the URL (and, where the driver has
+                // schemas, of its current schema, which leaves out e.g. H2's system tables)
+                rs = metaData.getTables(conn.getCatalog(), conn.getSchema(), "%", new String[]{"TABLE"});
+                while (rs.next()) {
+                    tableNames.add(rs.getString("TABLE_NAME"));
+                }
+            } finally {
+                if (rs != null) {
+                    try {
+                        rs.close();
+                    } catch (SQLException e) { /* ignore */ }
+                }
+                DBUtil.closeConnection(conn);
+            }
+            return Collections.unmodifiableList(tableNames);
+        }
+
+        private static TableSchema readTable(String tableName) throws SQLException {
+            List<String> columnNames = new ArrayList<>();
+            List<String> columnTypes = new ArrayList<>();
+            List<String> primaryKey = new ArrayList<>();
+            Connection conn = null;
+            try {
+                conn = DBUtil.getConnection();
+                DatabaseMetaData metaData = conn.getMetaData();
+                try (ResultSet rsColumns = metaData.getColumns(null, null, tableName, null)) {
+                    while (rsColumns.next()) {
+                        columnNames.add(rsColumns.getString("COLUMN_NAME"));
+                        columnTypes.add(rsColumns.getString("TYPE_NAME"));
+                    }
+                }
+                try (ResultSet rsPrimaryKeys = metaData.getPrimaryKeys(null, null, tableName)) {
+                    while (rsPrimaryKeys.next()) {
+                        primaryKey.add(rsPrimaryKeys.getString("COLUMN_NAME"));
+                    }
+                }
+            } finally {
+                DBUtil.closeConnection(conn);
+            }
+            return new TableSchema(columnNames, columnTypes, primaryKey);
+        }
+    }
+    // --- End SchemaCache Class ---
+
+    // --- TableSchema Class ---
+    public static class TableSchema {
+        private final List<String> columnNames;
+        private final List<String> columnTypes;
+        private final List<String> primaryKey;
+
+        private TableSchema(List<String> columnNames, List<String> columnTypes, List<String> primaryKey) {
+            this.columnNames = Collections.unmodifiableList(columnNames);
+            this.columnTypes = Collections.unmodifiableList(columnTypes);
+            this.primaryKey = Collections.unmodifiableList(primaryKey);
+        }
+
+        public List<String> getColumnNames() {
+            return columnNames;
+        }
+
+        // Database type names, e.g. "VARCHAR", in column order
+        public List<String> getColumnTypes() {
+            return columnTypes;
+        }
+
+        // Primary key columns; empty if the table has none
+        public List<String> getPrimaryKey() {
+            return primaryKey;
+        }
+    }
+    // --- End TableSchema Class ---
+
     private ToggleGroup operationGroup;
     private BorderPane root;
     private VBox contentPane;
     private Label statusLabel;
+    private ProgressIndicator progressIndicator;
+    private Button cancelButton;
+    private final ExecutorService dbExecutor = createDatabaseExecutor();
+    private final List<DatabaseTask> runningTasks = new ArrayList<>(); // Only touched on the FX thread
+    private DatabaseTask loadTask;
+    private final SchemaCache schemaCache = new SchemaCache();
 
     private TableView<DynamicRow> dataTable;
     private ComboBox<String> selectTableComboBox;
+    private CheckBox pagedCheckBox;
     private ObservableList<DynamicRow> tableData;
 
     @Override
@@ -105,7 +714,22 @@ public class DatabaseApp extends Application {
         // --- Status Label ---
         statusLabel = new Label("Choose an operation to begin.");
         statusLabel.setStyle("-fx-font-weight: bold; -fx-text-fill: blue;");
-        root.setBottom(statusLabel);
+
+        // --- Progress and Cancel, shown while database work is running ---
+        progressIndicator = new ProgressIndicator();
+        progressIndicator.setPrefSize(18, 18);
+        progressIndicator.setVisible(false);
+        cancelButton = new Button("Cancel");
+        cancelButton.setDisable(true);
+        cancelButton.setOnAction(e -> cancelRunningTasks());
+        HBox statusBar = new HBox(10, statusLabel, progressIndicator, cancelButton);
+        statusBar.setAlignment(Pos.CENTER_LEFT);
+        root.setBottom(statusBar);
+
+        // Hovering the status bar shows the connection pool's numbers
+        Tooltip poolTooltip = new Tooltip();
+        poolTooltip.setOnShowing(e -> poolTooltip.setText(DBUtil.getPoolStats()));
+        statusLabel.setTooltip(poolTooltip);
 
         Scene scene = new Scene(root, 800, 600);
         primaryStage.setTitle("MySQL Database Manager");
@@ -113,6 +737,19 @@ public class DatabaseApp extends Application {
         primaryStage.show();
 
         // No default radio button selection here, so the content pane starts empty
+
+        // Open the first connections while the user picks an operation
+        Thread warmUp = new Thread(DBUtil::warmUp, "connection-pool-warm-up");
+        warmUp.setDaemon(true);
+        warmUp.start();
+    }
+
+    @Override
+    public void stop() {
+        cancelRunningTasks();
+        dbExecutor.shutdownNow();
+        schemaCache.close();
+        DBUtil.shutdown();
     }
 
     // --- Helper for Status Messages ---
@@ -239,47 +876,182 @@ public class DatabaseApp extends Application {
         populateTableComboBox(selectTableComboBox);
         selectTableComboBox.setOnAction(e -> loadTableData(selectTableComboBox.getSelectionModel().getSelectedItem()));
 
+        // Paged mode shows the first rows at once and keeps memory flat on large tables
+        pagedCheckBox = new CheckBox("Load large tables page by page");
+        pagedCheckBox.setSelected(true);
+        pagedCheckBox.setOnAction(e -> loadTableData(selectTableComboBox.getSelectionModel().getSelectedItem()));
+
         dataTable = new TableView<>();
         dataTable.setPlaceholder(new Label("Select a table to view its records."));
+        // Rows still being read cannot be checked, so no click lands on a stand-in
+        dataTable.setRowFactory(table -> new TableRow<DynamicRow>() {
+            @Override
+            protected void updateItem(DynamicRow item, boolean empty) {
+                super.updateItem(item, empty);
+                setDisable(item != null && item.isPlaceholder());
+            }
+        });
 
         Button deleteSelectedButton = new Button("Delete Selected Records");
         deleteSelectedButton.setStyle("-fx-background-color: darkred; -fx-text-fill: white; -fx-font-weight: bold;");
         deleteSelectedButton.setOnAction(e -> deleteSelectedRecords());
 
-        selectBox.getChildren().addAll(selectTableComboBox, dataTable, deleteSelectedButton);
+        selectBox.getChildren().addAll(selectTableComboBox, pagedCheckBox, dataTable, deleteSelectedButton);
         contentPane.getChildren().add(selectBox);
     }
 
-    // --- Database Operations (remain the same) ---
+    // --- Background Database Work ---
+    // JDBC calls never run on the JavaFX Application Thread. Each operation is a
+    // DatabaseTask whose work runs on dbExecutor and returns the UI update to apply
+    // once it succeeds; runDatabaseTask shows the progress indicator meanwhile and the
+    // Cancel button cancels whatever is running, including the SQL statement itself.
 
-    private void createTable(String tableName, String columns) {
-        String sql = "CREATE TABLE " + tableName + " (" + columns + ")";
-        Connection conn = null;
-        Statement stmt = null;
-        try {
-            conn = DBUtil.getConnection();
-            stmt = conn.createStatement();
-            stmt.execute(sql);
-            updateStatus("Table '" + tableName + "' created successfully!", "green");
-            populateTableComboBox(selectTableComboBox);
-            ComboBox<String> insertTableCb = findComboBox(contentPane, "Select Table for Insertion:");
-            if (insertTableCb != null) populateTableComboBox(insertTableCb);
-            ComboBox<String> updateTableCb = findComboBox(contentPane, "Select Table for Update:");
-            if (updateTableCb != null) populateTableComboBox(updateTableCb);
-
-        } catch (SQLException e) {
-            updateStatus("Error creating table: " + e.getMessage(), "red");
-            e.printStackTrace();
-        } finally {
-            DBUtil.closeConnection(conn);
-            if (stmt != null) {
+    @FunctionalInterface
+    private interface DatabaseWork {
+        // Runs off the FX thread; the returned Runnable is run on it afterwards
+        Runnable run(DatabaseTask task) throws SQLException;
+    }
+
+    // --- DatabaseTask Class ---
+    // Cancelling never blocks the caller (the FX thread): the statement is cancelled
+    // from the executor, since a driver may open a connection of its own for that
+    // (MySQL sends KILL QUERY), and the worker is not interrupted, since interrupting
+    // a socket read can close the socket under the driver and leave a dead
+    // connection for the pool to hand out.
+    public static class DatabaseTask extends Task<Runnable> {
+        private final DatabaseWork work;
+        private final Executor executor;
+        private volatile Statement running; // Statement to cancel along with the task
+
+        private DatabaseTask(DatabaseWork work, Executor executor) {
+            this.work = work;
+            this.executor = executor;
+        }
+
+        @Override
+        protected Runnable call() throws SQLException {
+            return work.run(this);
+        }
+
+        // Registers the statement about to be executed so that cancel() can abort it.
+        // A task cancelled before its statement starts stops here: cancelling a
+        // statement that is not running yet is a no-op on some drivers.
+        public <S extends Statement> S track(S statement) throws SQLException {
+            if (isCancelled()) {
+                statement.close();
+                throw new CancellationException();
+            }
+            running = statement;
+            return statement;
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            boolean cancelled = super.cancel(false);
+            Statement statement = running;
+            if (cancelled && statement != null) {
                 try {
-                    stmt.close();
-                } catch (SQLException e) { /* ignore */ }
+                    executor.execute(() -> {
+                        try {
+                            statement.cancel();
+                        } catch (SQLException e) {
+                            // Already finished or closed
+                        }
+                    });
+                } catch (RejectedExecutionException e) {
+                    // Shutting down
+                }
             }
+            return cancelled;
+        }
+    }
+    // --- End DatabaseTask Class ---
+
+    // Virtual threads where the JVM has them (Java 21+), daemon platform threads otherwise
+    private static ExecutorService createDatabaseExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool(runnable -> {
+                Thread thread = new Thread(runnable, "database-worker");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    // activity reads like "loading table data"; it is shown while running and in errors
+    private DatabaseTask runDatabaseTask(String activity, DatabaseWork work) {
+        DatabaseTask task = new DatabaseTask(work, dbExecutor);
+        runningTasks.add(task);
+        updateStatus(Character.toUpperCase(activity.charAt(0)) + activity.substring(1) + "...", "blue");
+        showProgress();
+        task.setOnSucceeded(e -> {
+            finishTask(task);
+            task.getValue().run();
+        });
+        task.setOnFailed(e -> {
+            finishTask(task);
+            Throwable error = task.getException();
+            updateStatus("Error " + activity + ": " + error.getMessage(), "red");
+            error.printStackTrace();
+        });
+        task.setOnCancelled(e -> {
+            finishTask(task);
+            updateStatus("Cancelled " + activity + ".", "orange");
+        });
+        dbExecutor.execute(task);
+        return task;
+    }
+
+    private void finishTask(DatabaseTask task) {
+        runningTasks.remove(task);
+        showProgress();
+    }
+
+    private void showProgress() {
+        boolean busy = !runningTasks.isEmpty();
+        progressIndicator.setVisible(busy);
+        cancelButton.setDisable(!busy);
+    }
+
+    private void cancelRunningTasks() {
+        for (DatabaseTask task : new ArrayList<>(runningTasks)) {
+            task.cancel();
         }
     }
 
+    // --- Database Operations ---
+
+    private void createTable(String tableName, String columns) {
+        String sql = "CREATE TABLE " + tableName + " (" + columns + ")";
+        runDatabaseTask("creating table", task -> {
+            Connection conn = null;
+            Statement stmt = null;
+            try {
+                conn = DBUtil.getConnection();
+                stmt = task.track(conn.createStatement());
+                stmt.execute(sql);
+                schemaCache.invalidate();
+            } finally {
+                if (stmt != null) {
+                    try {
+                        stmt.close();
+                    } catch (SQLException e) { /* ignore */ }
+                }
+                DBUtil.closeConnection(conn);
+            }
+            return () -> {
+                updateStatus("Table '" + tableName + "' created successfully!", "green");
+                if (selectTableComboBox != null) populateTableComboBox(selectTableComboBox);
+                ComboBox<String> insertTableCb = findComboBox(contentPane, "Select Table for Insertion:");
+                if (insertTableCb != null) populateTableComboBox(insertTableCb);
+                ComboBox<String> updateTableCb = findComboBox(contentPane, "Select Table for Update:");
+                if (updateTableCb != null) populateTableComboBox(updateTableCb);
+            };
+        });
+    }
+
     private ComboBox<String> findComboBox(VBox parent, String labelText) {
         for (javafx.scene.Node node : parent.getChildren()) {
             if (node instanceof VBox) {
@@ -299,96 +1071,91 @@ public class DatabaseApp extends Application {
     }
 
     private void insertRecord(String tableName, String data) {
-        Connection conn = null;
-        PreparedStatement pstmt = null;
+        runDatabaseTask("inserting record", task -> {
+            Connection conn = null;
+            PreparedStatement pstmt = null;
+            try {
+                StringBuilder columnsPart = new StringBuilder();
+                StringBuilder valuesPart = new StringBuilder();
+                boolean firstColumn = true;
+                int columnCount = 0;
+                for (String columnName : schemaCache.getTable(tableName).getColumnNames()) {
+                    if (!firstColumn) {
+                        columnsPart.append(", ");
+                        valuesPart.append(", ");
+                    }
+                    columnsPart.append(columnName);
+                    valuesPart.append("?");
+                    firstColumn = false;
+                    columnCount++;
+                }
 
-        try {
-            conn = DBUtil.getConnection();
-            DatabaseMetaData metaData = conn.getMetaData();
-            ResultSet rsColumns = metaData.getColumns(null, null, tableName, null);
-
-            StringBuilder columnsPart = new StringBuilder();
-            StringBuilder valuesPart = new StringBuilder();
-            boolean firstColumn = true;
-            int columnCount = 0;
-            while(rsColumns.next()) {
-                if (!firstColumn) {
-                    columnsPart.append(", ");
-                    valuesPart.append(", ");
-                }
-                columnsPart.append(rsColumns.getString("COLUMN_NAME"));
-                valuesPart.append("?");
-                firstColumn = false;
-                columnCount++;
-            }
-            rsColumns.close();
-
-            String sql = "INSERT INTO " + tableName + " (" + columnsPart.toString() + ") VALUES (" + valuesPart.toString() + ")";
-            pstmt = conn.prepareStatement(sql);
-
-            String[] values = data.split(",");
-            if (values.length != columnCount) {
-                updateStatus("Mismatch in data values provided and actual column count. Expected " + columnCount + " values.", "red");
-                return;
-            }
+                String[] values = data.split(",");
+                if (values.length != columnCount) {
+                    int expected = columnCount;
+                    return () -> updateStatus("Mismatch in data values provided and actual column count. Expected " + expected + " values.", "red");
+                }
 
-            for (int i = 0; i < values.length; i++) {
-                String cleanedValue = values[i].trim();
-                if (cleanedValue.startsWith("'") && cleanedValue.endsWith("'")) {
-                    cleanedValue = cleanedValue.substring(1, cleanedValue.length() - 1);
+                String sql = "INSERT INTO " + tableName + " (" + columnsPart.toString() + ") VALUES (" + valuesPart.toString() + ")";
+                conn = DBUtil.getConnection();
+                pstmt = task.track(conn.prepareStatement(sql));
+                for (int i = 0; i < values.length; i++) {
+                    String cleanedValue = values[i].trim();
+                    if (cleanedValue.startsWith("'") && cleanedValue.endsWith("'")) {
+                        cleanedValue = cleanedValue.substring(1, cleanedValue.length() - 1);
+                    }
+                    pstmt.setString(i + 1, cleanedValue);
                 }
-                pstmt.setString(i + 1, cleanedValue);
-            }
 
-            int rowsAffected = pstmt.executeUpdate();
-            if (rowsAffected > 0) {
-                updateStatus("Record inserted successfully into '" + tableName + "'!", "green");
-                if (selectTableComboBox.getSelectionModel().getSelectedItem() != null && selectTableComboBox.getSelectionModel().getSelectedItem().equals(tableName)) {
-                    loadTableData(tableName);
+                int rowsAffected = pstmt.executeUpdate();
+                if (rowsAffected == 0) {
+                    return () -> updateStatus("Failed to insert record into '" + tableName + "'.", "orange");
                 }
-            } else {
-                updateStatus("Failed to insert record into '" + tableName + "'.", "orange");
-            }
-        } catch (SQLException e) {
-            updateStatus("Error inserting record: " + e.getMessage(), "red");
-            e.printStackTrace();
-        } finally {
-            DBUtil.closeConnection(conn);
-            if (pstmt != null) {
-                try {
-                    pstmt.close();
-                } catch (SQLException e) { /* ignore */ }
+            } catch (SQLException e) {
+                // The table may have changed since its columns were cached
+                schemaCache.invalidate(tableName);
+                throw e;
+            } finally {
+                if (pstmt != null) {
+                    try {
+                        pstmt.close();
+                    } catch (SQLException e) { /* ignore */ }
+                }
+                DBUtil.closeConnection(conn);
             }
-        }
+            return () -> {
+                updateStatus("Record inserted successfully into '" + tableName + "'!", "green");
+                reloadIfShowing(tableName);
+            };
+        });
     }
 
     private void updateRecord(String tableName, String setClause, String whereClause) {
         String sql = "UPDATE " + tableName + " SET " + setClause + " WHERE " + whereClause;
-        Connection conn = null;
-        Statement stmt = null;
-        try {
-            conn = DBUtil.getConnection();
-            stmt = conn.createStatement();
-            int rowsAffected = stmt.executeUpdate(sql);
-            if (rowsAffected > 0) {
-                updateStatus(rowsAffected + " record(s) updated successfully in '" + tableName + "'!", "green");
-                if (selectTableComboBox.getSelectionModel().getSelectedItem() != null && selectTableComboBox.getSelectionModel().getSelectedItem().equals(tableName)) {
-                    loadTableData(tableName);
+        runDatabaseTask("updating record", task -> {
+            Connection conn = null;
+            Statement stmt = null;
+            int rowsAffected;
+            try {
+                conn = DBUtil.getConnection();
+                stmt = task.track(conn.createStatement());
+                rowsAffected = stmt.executeUpdate(sql);
+            } finally {
+                if (stmt != null) {
+                    try {
+                        stmt.close();
+                    } catch (SQLException e) { /* ignore */ }
                 }
-            } else {
-                updateStatus("No records updated in '" + tableName + "'. Check WHERE clause.", "orange");
+                DBUtil.closeConnection(conn);
             }
-        } catch (SQLException e) {
-            updateStatus("Error updating record: " + e.getMessage(), "red");
-            e.printStackTrace();
-        } finally {
-            DBUtil.closeConnection(conn);
-            if (stmt != null) {
-                try {
-                    stmt.close();
-                } catch (SQLException e) { /* ignore */ }
+            if (rowsAffected == 0) {
+                return () -> updateStatus("No records updated in '" + tableName + "'. Check WHERE clause.", "orange");
             }
-        }
+            return () -> {
+                updateStatus(rowsAffected + " record(s) updated successfully in '" + tableName + "'!", "green");
+                reloadIfShowing(tableName);
+            };
+        });
     }
 
     private void deleteSelectedRecords() {
@@ -398,10 +1165,15 @@ public class DatabaseApp extends Application {
             return;
         }
 
-        ObservableList<DynamicRow> itemsToDelete = FXCollections.observableArrayList();
-        for (DynamicRow row : dataTable.getItems()) {
-            if (row.isChecked()) {
-                itemsToDelete.add(row);
+        List<DynamicRow> itemsToDelete = new ArrayList<>();
+        if (dataTable.getItems() instanceof PagedRows) {
+            // Includes rows of evicted pages, without reading every page back
+            itemsToDelete.addAll(((PagedRows) dataTable.getItems()).getCheckedRows());
+        } else {
+            for (DynamicRow row : dataTable.getItems()) {
+                if (row.isChecked()) {
+                    itemsToDelete.add(row);
+                }
             }
         }
 
@@ -410,205 +1182,564 @@ public class DatabaseApp extends Application {
             return;
         }
 
-        Connection conn = null;
-        PreparedStatement pstmt = null;
-        try {
-            conn = DBUtil.getConnection();
-            conn.setAutoCommit(false);
-
-            DatabaseMetaData metaData = conn.getMetaData();
-            ResultSet rsPrimaryKeys = metaData.getPrimaryKeys(null, null, tableName);
-            String primaryKeyColumn = null;
-            if (rsPrimaryKeys.next()) {
-                primaryKeyColumn = rsPrimaryKeys.getString("COLUMN_NAME");
-            } else {
-                ResultSet rsColumns = metaData.getColumns(null, null, tableName, null);
-                while(rsColumns.next()) {
-                    String colName = rsColumns.getString("COLUMN_NAME").toLowerCase();
-                    if (colName.equals("id") || colName.endsWith("_id")) {
-                        primaryKeyColumn = rsColumns.getString("COLUMN_NAME");
-                        break;
+        runDatabaseTask("deleting records", task -> {
+            Connection conn = null;
+            PreparedStatement pstmt = null;
+            try {
+                conn = DBUtil.getConnection();
+                conn.setAutoCommit(false);
+
+                TableSchema schema = schemaCache.getTable(tableName);
+                String primaryKeyColumn = null;
+                if (!schema.getPrimaryKey().isEmpty()) {
+                    primaryKeyColumn = schema.getPrimaryKey().get(0);
+                } else {
+                    for (String columnName : schema.getColumnNames()) {
+                        String colName = columnName.toLowerCase();
+                        if (colName.equals("id") || colName.endsWith("_id")) {
+                            primaryKeyColumn = columnName;
+                            break;
+                        }
                     }
                 }
-                rsColumns.close();
-            }
-            rsPrimaryKeys.close();
 
-            if (primaryKeyColumn == null) {
-                updateStatus("Cannot delete: No clear primary key found for table '" + tableName + "'. Manual WHERE clause required.", "red");
-                conn.rollback();
-                return;
-            }
+                if (primaryKeyColumn == null) {
+                    conn.rollback();
+                    return () -> updateStatus("Cannot delete: No clear primary key found for table '" + tableName + "'. Manual WHERE clause required.", "red");
+                }
 
-            Map<String, Integer> columnNameToIndexMap = new LinkedHashMap<>();
-            ResultSetMetaData rsmdForPK = conn.createStatement().executeQuery("SELECT * FROM " + tableName + " LIMIT 0").getMetaData();
-            for (int i = 1; i <= rsmdForPK.getColumnCount(); i++) {
-                columnNameToIndexMap.put(rsmdForPK.getColumnName(i).toLowerCase(), i);
-            }
+                Map<String, Integer> columnNameToIndexMap = new LinkedHashMap<>();
+                List<String> columnNames = schema.getColumnNames();
+                for (int i = 0; i < columnNames.size(); i++) {
+                    columnNameToIndexMap.put(columnNames.get(i).toLowerCase(), i + 1);
+                }
 
-            Integer pkColumnJdbcIndex = columnNameToIndexMap.get(primaryKeyColumn.toLowerCase());
-            if (pkColumnJdbcIndex == null) {
-                updateStatus("Primary key column '" + primaryKeyColumn + "' not found in table metadata.", "red");
-                conn.rollback();
-                return;
-            }
+                Integer pkColumnJdbcIndex = columnNameToIndexMap.get(primaryKeyColumn.toLowerCase());
+                if (pkColumnJdbcIndex == null) {
+                    conn.rollback();
+                    String missing = primaryKeyColumn;
+                    return () -> updateStatus("Primary key column '" + missing + "' not found in table metadata.", "red");
+                }
 
-            String sql = "DELETE FROM " + tableName + " WHERE " + primaryKeyColumn + " = ?";
-            pstmt = conn.prepareStatement(sql);
+                String sql = "DELETE FROM " + tableName + " WHERE " + primaryKeyColumn + " = ?";
+                pstmt = task.track(conn.prepareStatement(sql));
 
-            int deletedCount = 0;
-            for (DynamicRow row : itemsToDelete) {
-                String pkValue = row.getColumnValue(primaryKeyColumn);
+                int deletedCount = 0;
+                int skippedCount = 0;
+                for (DynamicRow row : itemsToDelete) {
+                    String pkValue = row.getColumnValue(primaryKeyColumn);
 
-                if (pkValue == null) {
-                    updateStatus("Could not retrieve primary key value for a row selected for deletion.", "orange");
-                    continue;
+                    if (pkValue == null) {
+                        skippedCount++;
+                        continue;
+                    }
+
+                    try {
+                        int intValue = Integer.parseInt(pkValue);
+                        pstmt.setInt(1, intValue);
+                    } catch (NumberFormatException e) {
+                        pstmt.setString(1, pkValue);
+                    }
+                    deletedCount += pstmt.executeUpdate();
                 }
 
-                try {
-                    int intValue = Integer.parseInt(pkValue);
-                    pstmt.setInt(1, intValue);
-                } catch (NumberFormatException e) {
-                    pstmt.setString(1, pkValue);
+                conn.commit();
+                String message = deletedCount + " record(s) deleted successfully from '" + tableName + "'!"
+                        + (skippedCount > 0 ? " " + skippedCount + " selected row(s) had no primary key value." : "");
+                String color = skippedCount > 0 ? "orange" : "green";
+                return () -> {
+                    updateStatus(message, color);
+                    loadTableData(tableName);
+                };
+            } catch (SQLException e) {
+                if (conn != null) {
+                    try {
+                        conn.rollback();
+                    } catch (SQLException ex) { /* ignore */ }
+                }
+                throw e;
+            } finally {
+                if (pstmt != null) {
+                    try {
+                        pstmt.close();
+                    } catch (SQLException e) { /* ignore */ }
                 }
-                deletedCount += pstmt.executeUpdate();
+                DBUtil.closeConnection(conn);
             }
+        });
+    }
 
-            conn.commit();
-            updateStatus(deletedCount + " record(s) deleted successfully from '" + tableName + "'!", "green");
+    private void populateTableComboBox(ComboBox<String> comboBox) {
+        // Refreshing the list is incidental, so the status shown before it comes back afterwards
+        String previousStatus = statusLabel.getText();
+        String previousStyle = statusLabel.getStyle();
+        runDatabaseTask("fetching table names", task -> {
+            ObservableList<String> tableNames = FXCollections.observableArrayList(schemaCache.getTables());
+            return () -> {
+                comboBox.setItems(tableNames);
+                statusLabel.setText(previousStatus);
+                statusLabel.setStyle(previousStyle);
+            };
+        });
+    }
+
+    private void reloadIfShowing(String tableName) {
+        if (selectTableComboBox != null && tableName.equals(selectTableComboBox.getSelectionModel().getSelectedItem())) {
             loadTableData(tableName);
-        } catch (SQLException e) {
-            updateStatus("Error deleting records: " + e.getMessage(), "red");
-            e.printStackTrace();
-            if (conn != null) {
-                try {
-                    conn.rollback();
-                } catch (SQLException ex) { /* ignore */ }
+        }
+    }
+
+    private void loadTableData(String tableName) {
+        if (loadTask != null) {
+            loadTask.cancel(); // A newer selection replaces the load in progress
+            loadTask = null;
+        }
+        if (tableData instanceof PagedRows) {
+            ((PagedRows) tableData).close();
+        }
+        if (tableName == null || tableName.isEmpty()) {
+            dataTable.getColumns().clear();
+            dataTable.setItems(FXCollections.observableArrayList());
+            return;
+        }
+
+        if (pagedCheckBox.isSelected()) {
+            loadTablePaged(tableName);
+        } else {
+            loadTableFully(tableName, "");
+        }
+    }
+
+    // note is appended to the status once the table is shown
+    // Streams the table into the view: the columns appear as soon as the query
+    // returns, and rows follow in batches while the rest are still being read
+    private void loadTableFully(String tableName, String note) {
+        loadTask = runDatabaseTask("loading table data", task -> {
+            List<String> columnNames = new ArrayList<>();
+            ObservableList<DynamicRow> rows = FXCollections.observableArrayList();
+            RowBatcher batcher = new RowBatcher(task, tableName, rows);
+            Connection conn = null;
+            Statement stmt = null;
+            ResultSet rs = null;
+            try {
+                conn = DBUtil.getConnection();
+                stmt = task.track(conn.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY));
+                stmt.setFetchSize(DBUtil.getStreamingFetchSize());
+                rs = stmt.executeQuery("SELECT * FROM " + tableName);
+
+                ResultSetMetaData rsmd = rs.getMetaData();
+                int columnCount = rsmd.getColumnCount();
+                for (int i = 1; i <= columnCount; i++) {
+                    columnNames.add(rsmd.getColumnName(i));
+                }
+                Platform.runLater(() -> {
+                    if (!task.isCancelled()) {
+                        showTableColumns(columnNames, true);
+                        tableData = rows;
+                        dataTable.setItems(tableData);
+                    }
+                });
+
+                while (rs.next()) {
+                    if (task.isCancelled()) {
+                        break;
+                    }
+                    batcher.add(readRow(rs, columnNames));
+                }
+            } finally {
+                if (rs != null) {
+                    try {
+                        rs.close();
+                    } catch (SQLException e) { /* ignore */ }
+                }
+                if (stmt != null) {
+                    try {
+                        stmt.close();
+                    } catch (SQLException e) { /* ignore */ }
+                }
+                DBUtil.closeConnection(conn);
             }
-        } finally {
-            DBUtil.closeConnection(conn);
-            if (pstmt != null) {
-                try {
-                    pstmt.close();
-                } catch (SQLException e) { /* ignore */ }
+            return () -> {
+                batcher.flush();
+                updateStatus("Table '" + tableName + "' loaded successfully (" + rows.size() + " rows)." + note, "blue");
+            };
+        });
+    }
+
+    // --- RowBatcher Class ---
+    // Moves rows read on a worker thread into the table's list on the FX thread. Rows
+    // collect in pending, and a Platform.runLater that appends everything collected so
+    // far is posted once BATCH_ROWS are waiting or FLUSH_INTERVAL_NANOS have passed,
+    // with never more than one outstanding. The first row goes out at once; after
+    // that, a fast reader produces a few large appends per frame instead of one UI
+    // event per row.
+    private class RowBatcher {
+        private static final int BATCH_ROWS = 1000;
+        private static final long FLUSH_INTERVAL_NANOS = 50_000_000;
+
+        private final DatabaseTask task;
+        private final String tableName;
+        private final ObservableList<DynamicRow> target;
+        private List<DynamicRow> pending = new ArrayList<>(); // Guarded by this
+        private boolean scheduled; // Guarded by this
+        private long lastFlushNanos = System.nanoTime() - FLUSH_INTERVAL_NANOS;
+
+        RowBatcher(DatabaseTask task, String tableName, ObservableList<DynamicRow> target) {
+            this.task = task;
+            this.tableName = tableName;
+            this.target = target;
+        }
+
+        // Worker thread
+        void add(DynamicRow row) {
+            synchronized (this) {
+                pending.add(row);
+                if (scheduled || (pending.size() < BATCH_ROWS && System.nanoTime() - lastFlushNanos < FLUSH_INTERVAL_NANOS)) {
+                    return;
+                }
+                scheduled = true;
+                lastFlushNanos = System.nanoTime();
+            }
+            Platform.runLater(this::flush);
+        }
+
+        // FX thread
+        void flush() {
+            List<DynamicRow> batch;
+            synchronized (this) {
+                batch = pending;
+                pending = new ArrayList<>();
+                scheduled = false;
+            }
+            if (task.isCancelled() || batch.isEmpty()) {
+                return;
+            }
+            target.addAll(batch);
+            updateStatus("Loading '" + tableName + "': " + target.size() + " rows loaded...", "blue");
+        }
+    }
+    // --- End RowBatcher Class ---
+
+    private static DynamicRow readRow(ResultSet rs, List<String> columnNames) throws SQLException {
+        DynamicRow row = new DynamicRow();
+        for (String colName : columnNames) {
+            String value = rs.getString(colName);
+            // Convert all string values to uppercase for display
+            row.addColumnValue(colName, value != null ? value.toUpperCase() : null);
+        }
+        return row;
+    }
+
+    // Rebuilds the table's columns: the delete checkbox, then one per database column.
+    // Paged tables are not sortable, since only a few pages are in memory.
+    private void showTableColumns(List<String> columnNames, boolean sortable) {
+        dataTable.getColumns().clear();
+
+        TableColumn<DynamicRow, Boolean> checkColumn = new TableColumn<>("Delete?");
+        checkColumn.setCellValueFactory(param -> param.getValue().checkedProperty());
+        checkColumn.setCellFactory(column -> new TableCell<DynamicRow, Boolean>() {
+            private final CheckBox checkBox = new CheckBox();
+            {
+                checkBox.setOnAction(event -> {
+                    DynamicRow row = getTableView().getItems().get(getIndex());
+                    row.setChecked(checkBox.isSelected());
+                });
             }
+            @Override
+            protected void updateItem(Boolean item, boolean empty) {
+                super.updateItem(item, empty);
+                if (empty) {
+                    setGraphic(null);
+                } else {
+                    checkBox.setSelected(item != null && item);
+                    setGraphic(checkBox);
+                }
+            }
+        });
+        checkColumn.setPrefWidth(70);
+        checkColumn.setSortable(sortable);
+        dataTable.getColumns().add(checkColumn);
+
+        for (String colName : columnNames) {
+            TableColumn<DynamicRow, String> col = new TableColumn<>(colName);
+            col.setCellValueFactory(param -> param.getValue().getColumnValueProperty(colName));
+            col.setPrefWidth(120);
+            col.setSortable(sortable);
+            dataTable.getColumns().add(col);
         }
     }
 
-    private void populateTableComboBox(ComboBox<String> comboBox) {
-        ObservableList<String> tableNames = FXCollections.observableArrayList();
+    // --- Paged Browsing ---
+
+    private static final int PAGE_SIZE = 200;
+    private static final int CACHED_PAGES = 10; // About 2,000 rows in memory, whatever the table size
+
+    private void loadTablePaged(String tableName) {
+        loadTask = runDatabaseTask("loading first page of '" + tableName + "'", task -> {
+            String keyColumn = findKeysetColumn(tableName);
+            if (keyColumn == null) {
+                return () -> loadTableFully(tableName, " It has no single-column primary key to page by, so it was loaded in full.");
+            }
+            Page first = readPage(task, tableName, keyColumn, null);
+            return () -> {
+                showTableColumns(first.columnNames, false);
+                PagedRows rows = new PagedRows(tableName, keyColumn, first);
+                tableData = rows;
+                dataTable.setItems(tableData);
+                rows.watchScrolling();
+                rows.showProgress();
+            };
+        });
+    }
+
+    // Name of the table's primary key if it is a single column, null otherwise
+    private String findKeysetColumn(String tableName) throws SQLException {
+        List<String> primaryKey = schemaCache.getTable(tableName).getPrimaryKey();
+        return primaryKey.size() == 1 ? primaryKey.get(0) : null;
+    }
+
+    // --- Page Class ---
+    private static final class Page {
+        final List<String> columnNames = new ArrayList<>();
+        final List<DynamicRow> rows = new ArrayList<>();
+        Object lastKey; // Key of the last row, where the next page starts
+    }
+    // --- End Page Class ---
+
+    // Reads the PAGE_SIZE rows following afterKey (from the start if null). Seeking by
+    // key instead of OFFSET lets the database jump straight to the page through the
+    // primary key index, so deep pages cost no more than the first one.
+    private static Page readPage(DatabaseTask task, String tableName, String keyColumn, Object afterKey) throws SQLException {
+        String sql = "SELECT * FROM " + tableName + (afterKey != null ? " WHERE " + keyColumn + " > ?" : "")
+                + " ORDER BY " + keyColumn + " LIMIT " + PAGE_SIZE;
+        Page page = new Page();
         Connection conn = null;
+        PreparedStatement pstmt = null;
         ResultSet rs = null;
         try {
             conn = DBUtil.getConnection();
-            DatabaseMetaData metaData = conn.getMetaData();
-            // Specify the catalog (database) name here to only show tables from 'testdb'
-            rs = metaData.getTables("testdb", null, "%", new String[]{"TABLE"});
+            pstmt = task.track(conn.prepareStatement(sql));
+            if (afterKey != null) {
+                pstmt.setObject(1, afterKey);
+            }
+            rs = pstmt.executeQuery();
+            ResultSetMetaData rsmd = rs.getMetaData();
+            for (int i = 1; i <= rsmd.getColumnCount(); i++) {
+                page.columnNames.add(rsmd.getColumnName(i));
+            }
             while (rs.next()) {
-                tableNames.add(rs.getString("TABLE_NAME"));
+                page.rows.add(readRow(rs, page.columnNames));
+                page.lastKey = rs.getObject(keyColumn);
             }
-            comboBox.setItems(tableNames);
-        } catch (SQLException e) {
-            updateStatus("Error fetching table names: " + e.getMessage(), "red");
-            e.printStackTrace();
         } finally {
-            DBUtil.closeConnection(conn);
             if (rs != null) {
                 try {
                     rs.close();
                 } catch (SQLException e) { /* ignore */ }
             }
+            if (pstmt != null) {
+                try {
+                    pstmt.close();
+                } catch (SQLException e) { /* ignore */ }
+            }
+            DBUtil.closeConnection(conn);
         }
+        return page;
     }
 
-    private void loadTableData(String tableName) {
-        if (tableName == null || tableName.isEmpty()) {
-            dataTable.getColumns().clear();
-            dataTable.setItems(FXCollections.observableArrayList());
-            return;
+    // --- PagedRows Class ---
+    // The TableView's items in paged mode. Only the CACHED_PAGES most recently viewed
+    // pages are held; a row of any other page shows as a disabled placeholder while its
+    // page is read again (keyset pagination needs just the last key of the page before,
+    // which is kept for every page seen). get() never queries: pages are read when the
+    // table scrolls, for the rows in view. The list grows by a page when the view
+    // reaches the second half of its last page, and the page after the one in view is
+    // read ahead the same way. Checked rows are remembered by key so that evicting a
+    // page keeps them.
+    private class PagedRows extends ObservableListBase<DynamicRow> {
+        private final String tableName;
+        private final String keyColumn;
+        private final List<Object> lastKeys = new ArrayList<>(); // Per page seen so far
+        private final Map<Integer, List<DynamicRow>> pages = new LinkedHashMap<Integer, List<DynamicRow>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, List<DynamicRow>> eldest) {
+                return size() > CACHED_PAGES;
+            }
+        };
+        private final Set<Integer> loading = new HashSet<>();
+        private final Map<String, DynamicRow> checkedRows = new LinkedHashMap<>();
+        private final Map<Integer, DynamicRow> placeholders = new HashMap<>(); // One per index until its page arrives
+        private final InvalidationListener onScroll = observable -> Platform.runLater(this::fetchVisible);
+        private VirtualFlow<?> flow;
+        private int size;
+        private boolean hasMore;
+        private boolean closed;
+
+        PagedRows(String tableName, String keyColumn, Page first) {
+            this.tableName = tableName;
+            this.keyColumn = keyColumn;
+            addPage(0, first);
         }
 
-        tableData = FXCollections.observableArrayList();
-        dataTable.getColumns().clear();
+        @Override
+        public int size() {
+            return size;
+        }
 
-        Connection conn = null;
-        Statement stmt = null;
-        ResultSet rs = null;
-        try {
-            conn = DBUtil.getConnection();
-            stmt = conn.createStatement();
-            rs = stmt.executeQuery("SELECT * FROM " + tableName);
+        @Override
+        public DynamicRow get(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("Index " + index + ", size " + size);
+            }
+            List<DynamicRow> rows = pages.get(index / PAGE_SIZE);
+            int offset = index % PAGE_SIZE;
+            // A page read again may have shrunk if rows were deleted meanwhile
+            if (rows != null && offset < rows.size()) {
+                return rows.get(offset);
+            }
+            return placeholders.computeIfAbsent(index, i -> DynamicRow.placeholder());
+        }
 
-            ResultSetMetaData rsmd = rs.getMetaData();
-            int columnCount = rsmd.getColumnCount();
-
-            TableColumn<DynamicRow, Boolean> checkColumn = new TableColumn<>("Delete?");
-            checkColumn.setCellValueFactory(param -> param.getValue().checkedProperty());
-            checkColumn.setCellFactory(column -> new TableCell<DynamicRow, Boolean>() {
-                private final CheckBox checkBox = new CheckBox();
-                {
-                    checkBox.setOnAction(event -> {
-                        DynamicRow row = getTableView().getItems().get(getIndex());
-                        row.setChecked(checkBox.isSelected());
-                    });
-                }
-                @Override
-                protected void updateItem(Boolean item, boolean empty) {
-                    super.updateItem(item, empty);
-                    if (empty) {
-                        setGraphic(null);
-                    } else {
-                        checkBox.setSelected(item != null && item);
-                        setGraphic(checkBox);
-                    }
-                }
-            });
-            checkColumn.setPrefWidth(70);
-            dataTable.getColumns().add(checkColumn);
+        // Reads pages as the table scrolls or is resized. The listeners only schedule
+        // fetchVisible, so no query starts during a layout pass.
+        void watchScrolling() {
+            if (closed) {
+                return;
+            }
+            flow = (VirtualFlow<?>) dataTable.lookup(".virtual-flow");
+            if (flow == null) {
+                Platform.runLater(this::watchScrolling); // The table's skin is not built yet
+                return;
+            }
+            flow.positionProperty().addListener(onScroll);
+            dataTable.heightProperty().addListener(onScroll);
+            Platform.runLater(this::fetchVisible);
+        }
 
-            ObservableList<String> columnNames = FXCollections.observableArrayList();
-            for (int i = 1; i <= columnCount; i++) {
-                String colName = rsmd.getColumnName(i);
-                columnNames.add(colName);
-                TableColumn<DynamicRow, String> col = new TableColumn<>(colName);
-                col.setCellValueFactory(param -> param.getValue().getColumnValueProperty(colName));
-                col.setPrefWidth(120);
-                dataTable.getColumns().add(col);
+        // Reads the pages of the rows in view, and the next page once the view reaches
+        // the second half of a page
+        private void fetchVisible() {
+            if (closed || size == 0) {
+                return;
+            }
+            int first = 0;
+            int last = Math.min(size, PAGE_SIZE) - 1;
+            IndexedCell<?> firstCell = flow != null ? flow.getFirstVisibleCell() : null;
+            IndexedCell<?> lastCell = flow != null ? flow.getLastVisibleCell() : null;
+            if (firstCell != null && lastCell != null) {
+                first = Math.max(0, firstCell.getIndex());
+                last = Math.min(size - 1, lastCell.getIndex());
             }
+            for (int page = first / PAGE_SIZE; page <= last / PAGE_SIZE; page++) {
+                fetch(page);
+            }
+            if (last % PAGE_SIZE >= PAGE_SIZE / 2) {
+                fetch(last / PAGE_SIZE + 1); // Read ahead
+            }
+        }
 
-            while (rs.next()) {
-                DynamicRow row = new DynamicRow();
-                for (String colName : columnNames) {
-                    String value = rs.getString(colName);
-                    // Convert all string values to uppercase for display
-                    row.addColumnValue(colName, value != null ? value.toUpperCase() : null);
-                }
-                tableData.add(row);
+        public List<DynamicRow> getCheckedRows() {
+            return new ArrayList<>(checkedRows.values());
+        }
+
+        // Stops applying pages still in flight, once another table is shown
+        public void close() {
+            closed = true;
+            if (flow != null) {
+                flow.positionProperty().removeListener(onScroll);
             }
-            dataTable.setItems(tableData);
-            updateStatus("Table '" + tableName + "' loaded successfully.", "blue");
+            dataTable.heightProperty().removeListener(onScroll);
+        }
 
-        } catch (SQLException e) {
-            updateStatus("Error loading table data: " + e.getMessage(), "red");
-            e.printStackTrace();
-        } finally {
-            DBUtil.closeConnection(conn);
-            if (stmt != null) {
-                try {
-                    stmt.close();
-                } catch (SQLException e) { /* ignore */ }
+        void showProgress() {
+            updateStatus("Showing " + size + " row(s) of '" + tableName + "'" + (hasMore ? "; more load as you scroll." : "."), "blue");
+        }
+
+        private void fetch(int page) {
+            if (closed || pages.containsKey(page) || loading.contains(page)
+                    || page > lastKeys.size() || (page == lastKeys.size() && !hasMore)) {
+                return;
             }
-            if (rs != null) {
-                try {
-                    rs.close();
-                } catch (SQLException e) { /* ignore */ }
+            Object afterKey = page == 0 ? null : lastKeys.get(page - 1);
+            loading.add(page);
+            DatabaseTask task = runDatabaseTask("loading rows " + (page * PAGE_SIZE + 1) + " to " + ((page + 1) * PAGE_SIZE) + " of '" + tableName + "'", t -> {
+                Page result = readPage(t, tableName, keyColumn, afterKey);
+                return () -> {
+                    loading.remove(page);
+                    if (!closed) {
+                        addPage(page, result);
+                        showProgress();
+                        Platform.runLater(this::fetchVisible); // The view may already need the next page
+                    }
+                };
+            });
+            // A cancelled page is read again on the next scroll; a failed one is not, so a
+            // broken connection does not turn every scroll into another query
+            task.setOnCancelled(e -> {
+                finishTask(task);
+                loading.remove(page);
+                updateStatus("Cancelled loading rows of '" + tableName + "'.", "orange");
+            });
+        }
+
+        private void addPage(int page, Page result) {
+            for (DynamicRow row : result.rows) {
+                String key = row.getColumnValue(keyColumn);
+                if (checkedRows.containsKey(key)) {
+                    row.setChecked(true);
+                }
+                row.checkedProperty().addListener((obs, wasChecked, isChecked) -> {
+                    if (isChecked) {
+                        checkedRows.put(key, row);
+                    } else {
+                        checkedRows.remove(key);
+                    }
+                });
             }
+            pages.put(page, result.rows);
+            if (page < lastKeys.size()) {
+                // Evicted page read again: its rows replace the placeholders
+                int from = page * PAGE_SIZE;
+                int to = Math.min(from + PAGE_SIZE, size);
+                List<DynamicRow> replaced = new ArrayList<>(to - from);
+                for (int i = from; i < to; i++) {
+                    DynamicRow placeholder = i - from < result.rows.size() ? placeholders.remove(i) : placeholders.get(i);
+                    replaced.add(placeholder != null ? placeholder : DynamicRow.placeholder());
+                }
+                beginChange();
+                nextReplace(from, to, replaced);
+                endChange();
+                return;
+            }
+            hasMore = result.rows.size() == PAGE_SIZE;
+            if (result.rows.isEmpty()) {
+                return;
+            }
+            lastKeys.add(result.lastKey);
+            int from = size;
+            size += result.rows.size();
+            beginChange();
+            nextAdd(from, size);
+            endChange();
         }
     }
+    // --- End PagedRows Class ---
 
     public static class DynamicRow {
         private final BooleanProperty checked = new SimpleBooleanProperty(false);
         private final Map<String, StringProperty> columnValues = new LinkedHashMap<>();
+        private boolean placeholder;
+
+        // Stands in for a row whose page is still being read; its table row is disabled
+        public static DynamicRow placeholder() {
+            DynamicRow row = new DynamicRow();
+            row.placeholder = true;
+            return row;
+        }
+
+        public boolean isPlaceholder() {
+            return placeholder;
+        }
 
         public BooleanProperty checkedProperty() {
             return checked;
@@ -638,5 +1769,5 @@ public class DatabaseApp extends Application {
 
     public static void main(String[] args) {
         launch(args);
-    }
+    }
 }
@@ -0,0 +1,56 @@
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Named, read-only datasets for the element-wise operations (see VectorMath). A
+// slot holds any DoubleSource: saving the inputs keeps an O(1) snapshot of them,
+// and results are stored without copying.
+public class DatasetSlots {
+
+    public static final String INPUTS = "inputs"; // Reserved: the current inputs, not a slot
+
+    private final Map<String, DoubleSource> slots = new LinkedHashMap<>();
+
+    public void put(String name, DoubleSource values) {
+        slots.put(checkName(name), values);
+    }
+
+    public DoubleSource get(String name) {
+        DoubleSource values = slots.get(name.toLowerCase());
+        if (values == null) {
+            throw new IllegalArgumentException("No dataset named '" + name + "'.");
+        }
+        return values;
+    }
+
+    public boolean remove(String name) {
+        return slots.remove(name.toLowerCase()) != null;
+    }
+
+    public boolean isEmpty() {
+        return slots.isEmpty();
+    }
+
+    // Slot names are letters, digits and '_', case-insensitive
+    static String checkName(String name) {
+        String key = name.toLowerCase();
+        if (key.isEmpty() || key.equals(INPUTS) || !key.chars().allMatch(c -> Character.isLetterOrDigit(c) || c == '_')) {
+            throw new IllegalArgumentException("Invalid dataset name '" + name + "'.");
+        }
+        return key;
+    }
+
+    // One line per slot: name, size and a preview
+    @Override
+    public String toString() {
+        if (slots.isEmpty()) {
+            return "No datasets saved.";
+        }
+        StringBuilder text = new StringBuilder();
+        for (Map.Entry<String, DoubleSource> slot : slots.entrySet()) {
+            if (text.length() > 0) text.append(System.lineSeparator());
+            text.append(slot.getKey()).append(" (").append(slot.getValue().size()).append(" values): ")
+                    .append(DisplayWindow.format(slot.getValue()));
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,295 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+// Durable storage for the inputs ("--data-dir <dir>"): a snapshot file of
+// little-endian doubles (the same format MappedDataset reads) plus an append-only
+// log of the changes made since. Restart maps the snapshot, copies it in one bulk
+// read and replays only the log, so millions of values come back in milliseconds.
+//
+// Files belong to a generation g: snapshot-g.bin and log-g.bin. Compaction writes
+// snapshot-(g+1) to a temporary file, forces it to disk, renames it into place and
+// starts log-(g+1); only then are the old files deleted. Recovery uses the newest
+// snapshot, so a crash at any point loses nothing that had reached the log.
+//
+// Log record: 'A' (append) or 'C' (clear), int count, count doubles, CRC32 of the
+// preceding bytes. A torn record at the end (crash mid-write) is cut off on
+// recovery. Records are handed to the OS as they happen, so a process crash loses
+// nothing; the disk itself is only forced on compaction and close.
+public class DatasetStore implements AutoCloseable {
+
+    private static final byte APPEND = 'A';
+    private static final byte CLEAR = 'C';
+    private static final int HEADER_BYTES = 1 + Integer.BYTES;
+    private static final int MAX_RECORD_VALUES = 1 << 13; // Larger appends are split
+    private static final long MIN_COMPACTION_BYTES = 1 << 20; // Logs below 1 MB replay in no time
+    private static final int SNAPSHOT_CHUNK = 1 << 16;
+
+    private final Path directory;
+    private long generation;
+    private FileChannel log;
+    private long logBytes;
+    private long snapshotBytes;
+    private final ByteBuffer record = ByteBuffer.allocateDirect(HEADER_BYTES + MAX_RECORD_VALUES * Double.BYTES + Integer.BYTES)
+            .order(ByteOrder.LITTLE_ENDIAN);
+    private final CRC32 crc = new CRC32();
+
+    private double[] recovered;
+    private int recoveredCount;
+    private long recoveryNanos;
+
+    private DatasetStore(Path directory) {
+        this.directory = directory;
+    }
+
+    // Opens (creating if needed) the store in directory and recovers its contents
+    public static DatasetStore open(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        DatasetStore store = new DatasetStore(directory);
+        long start = System.nanoTime();
+        store.recover();
+        store.recoveryNanos = System.nanoTime() - start;
+        return store;
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    // Values recovered by open(), in recoveredValues()[0, getRecoveredCount())
+    public double[] recoveredValues() {
+        return recovered;
+    }
+
+    public int getRecoveredCount() {
+        return recoveredCount;
+    }
+
+    public long getRecoveryNanos() {
+        return recoveryNanos;
+    }
+
+    // Frees the recovered array once the caller has taken it over
+    public void releaseRecovered() {
+        recovered = null;
+    }
+
+    public void append(double value) throws IOException {
+        record.clear();
+        record.put(APPEND).putInt(1).putDouble(value);
+        writeRecord();
+    }
+
+    public void appendAll(double[] values, int from, int to) throws IOException {
+        for (int start = from; start < to; start += MAX_RECORD_VALUES) {
+            int count = Math.min(MAX_RECORD_VALUES, to - start);
+            record.clear();
+            record.put(APPEND).putInt(count);
+            record.asDoubleBuffer().put(values, start, count);
+            record.position(HEADER_BYTES + count * Double.BYTES);
+            writeRecord();
+        }
+    }
+
+    public void clear() throws IOException {
+        record.clear();
+        record.put(CLEAR).putInt(0);
+        writeRecord();
+    }
+
+    // New contents in full: written as the next snapshot rather than logged
+    public void replaceAll(DoubleSource values) throws IOException {
+        compact(values);
+    }
+
+    // Compacts once replaying the log would cost more than reading the snapshot
+    public void maybeCompact(DoubleSource current) throws IOException {
+        if (logBytes >= Math.max(MIN_COMPACTION_BYTES, snapshotBytes)) {
+            compact(current);
+        }
+    }
+
+    // Writes current as the next generation's snapshot and starts an empty log
+    public void compact(DoubleSource current) throws IOException {
+        long next = generation + 1;
+        Path temporary = directory.resolve("snapshot-" + next + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            int size = current.size();
+            double[] chunk = new double[Math.min(SNAPSHOT_CHUNK, Math.max(size, 1))];
+            ByteBuffer buffer = ByteBuffer.allocateDirect(chunk.length * Double.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            for (int from = 0; from < size; from += chunk.length) {
+                int length = Math.min(chunk.length, size - from);
+                current.copyTo(from, chunk, 0, length);
+                buffer.clear();
+                buffer.asDoubleBuffer().put(chunk, 0, length);
+                buffer.limit(length * Double.BYTES);
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+            }
+            channel.force(true);
+            snapshotBytes = (long) size * Double.BYTES;
+        }
+        Files.move(temporary, snapshotPath(next), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        FileChannel nextLog = openLog(next);
+        FileChannel previous = log;
+        log = nextLog;
+        logBytes = 0;
+        long old = generation;
+        generation = next;
+        if (previous != null) {
+            previous.close();
+        }
+        deleteIfUnused(logPath(old));
+        deleteIfUnused(snapshotPath(old));
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (log != null) {
+            log.force(false);
+            log.close();
+            log = null;
+        }
+    }
+
+    private void writeRecord() throws IOException {
+        record.flip();
+        crc.reset();
+        crc.update(record);
+        record.limit(record.capacity());
+        record.putInt((int) crc.getValue());
+        record.flip();
+        while (record.hasRemaining()) {
+            logBytes += log.write(record);
+        }
+    }
+
+    // --- Recovery ---
+    private void recover() throws IOException {
+        generation = latestGeneration();
+        Path snapshot = snapshotPath(generation);
+        int count = 0;
+        double[] values = new double[16];
+        if (Files.exists(snapshot)) {
+            MappedDataset mapped = MappedDataset.open(snapshot);
+            count = mapped.size();
+            values = new double[Math.max(count + (count >> 3), 16)]; // Room for the log tail
+            mapped.copyTo(0, values, 0, count);
+            snapshotBytes = (long) count * Double.BYTES;
+        }
+
+        Path logFile = logPath(generation);
+        long valid = 0;
+        if (Files.exists(logFile)) {
+            try (FileChannel channel = FileChannel.open(logFile, StandardOpenOption.READ)) {
+                ByteBuffer bytes = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()).order(ByteOrder.LITTLE_ENDIAN);
+                while (bytes.remaining() >= HEADER_BYTES + Integer.BYTES) {
+                    int start = bytes.position();
+                    byte type = bytes.get();
+                    int n = bytes.getInt();
+                    if ((type != APPEND && type != CLEAR) || n < 0 || n > MAX_RECORD_VALUES
+                            || bytes.remaining() < (long) n * Double.BYTES + Integer.BYTES) {
+                        break;
+                    }
+                    ByteBuffer body = bytes.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+                    body.position(start).limit(start + HEADER_BYTES + n * Double.BYTES);
+                    crc.reset();
+                    crc.update(body);
+                    bytes.position(start + HEADER_BYTES + n * Double.BYTES);
+                    if (bytes.getInt() != (int) crc.getValue()) {
+                        break;
+                    }
+                    if (type == CLEAR) {
+                        count = 0;
+                    } else {
+                        if (count + n > values.length) {
+                            values = Arrays.copyOf(values, Math.max(values.length + (values.length >> 1), count + n));
+                        }
+                        body.position(start + HEADER_BYTES);
+                        body.asDoubleBuffer().get(values, count, n);
+                        count += n;
+                    }
+                    valid = bytes.position();
+                }
+            }
+        }
+        log = openLog(generation);
+        if (log.size() > valid) {
+            log.truncate(valid); // Torn or corrupt tail from a crash
+        }
+        log.position(valid);
+        logBytes = valid;
+        recovered = values;
+        recoveredCount = count;
+        deleteOtherGenerations();
+    }
+
+    // Highest generation with a snapshot, or the log of generation 0 if none
+    private long latestGeneration() throws IOException {
+        long latest = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "snapshot-*.bin")) {
+            for (Path file : files) {
+                long g = generationOf(file, "snapshot-");
+                if (g > latest) latest = g;
+            }
+        }
+        return latest;
+    }
+
+    // Leftovers of a compaction that was interrupted
+    private void deleteOtherGenerations() throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "{snapshot,log}-*")) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                String prefix = name.startsWith("log-") ? "log-" : "snapshot-";
+                if (name.endsWith(".tmp") || generationOf(file, prefix) != generation) {
+                    deleteIfUnused(file);
+                }
+            }
+        }
+    }
+
+    // Some systems refuse to delete a file that is still mapped; the next recovery
+    // removes it instead
+    private static void deleteIfUnused(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            // Left for the next recovery
+        }
+    }
+
+    private static long generationOf(Path file, String prefix) {
+        String name = file.getFileName().toString();
+        int dot = name.indexOf('.');
+        try {
+            return Long.parseLong(name.substring(prefix.length(), dot < 0 ? name.length() : dot));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private FileChannel openLog(long g) throws IOException {
+        FileChannel channel = FileChannel.open(logPath(g), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        channel.position(channel.size());
+        return channel;
+    }
+
+    private Path snapshotPath(long g) {
+        return directory.resolve("snapshot-" + g + ".bin");
+    }
+
+    private Path logPath(long g) {
+        return directory.resolve("log-" + g + ".bin");
+    }
+}
@@ -0,0 +1,56 @@
+import java.io.IOException;
+import java.io.Writer;
+import java.util.PrimitiveIterator;
+import java.util.function.IntToDoubleFunction;
+
+// Bounded text views of large collections. format() shows the first and last EDGE
+// values and the count, so printing a structure costs the same for ten values or
+// a hundred million; dump() streams every value through a writer on request.
+public class DisplayWindow {
+
+    static final int EDGE = 10;
+    static final int LIMIT = 2 * EDGE; // Up to this many values are shown in full
+    private static final int VALUES_PER_LINE = 10;
+
+    private DisplayWindow() {
+    }
+
+    public static String format(DoubleSequence values) {
+        return format(values.size(), values::get);
+    }
+
+    // "[a, b, c]" when short, else "[a, b, ..., y, z] (n values)"
+    public static String format(int size, IntToDoubleFunction values) {
+        StringBuilder sb = new StringBuilder(Math.min(size, LIMIT) * 8 + 32);
+        sb.append('[');
+        if (size <= LIMIT) {
+            for (int i = 0; i < size; i++) {
+                if (i > 0) sb.append(", ");
+                sb.append(values.applyAsDouble(i));
+            }
+            return sb.append(']').toString();
+        }
+        for (int i = 0; i < EDGE; i++) {
+            sb.append(values.applyAsDouble(i)).append(", ");
+        }
+        sb.append("...");
+        for (int i = size - EDGE; i < size; i++) {
+            sb.append(", ").append(values.applyAsDouble(i));
+        }
+        return sb.append("] (").append(size).append(" values)").toString();
+    }
+
+    // Every value, VALUES_PER_LINE to a line; the caller owns (and flushes) the writer
+    public static void dump(DoubleSequence values, Writer out) throws IOException {
+        PrimitiveIterator.OfDouble iterator = values.iterator();
+        int written = 0;
+        while (iterator.hasNext()) {
+            out.write(Double.toString(iterator.nextDouble()));
+            written++;
+            if (iterator.hasNext()) {
+                out.write(written % VALUES_PER_LINE == 0 ? ",\n" : ", ");
+            }
+        }
+        out.write('\n');
+    }
+}
@@ -0,0 +1,401 @@
+import java.util.Arrays;
+
+// Growable array of primitive doubles. Used instead of ArrayList<Double> so large
+// datasets are stored without boxing and can be scanned as a flat double[].
+// Aggregates (sum, average, min, max, variance) are maintained incrementally.
+// Searches use binary search once sorted, otherwise a lazily built DoubleIndex.
+// The length of the sorted prefix is tracked, so sorting after a few appends only
+// sorts the new tail and merges it in: O(k log k + n) instead of O(n log n).
+// snapshot() is O(1): both arrays share the backing array, and whichever one first
+// writes to the shared part copies it. The original can keep appending without
+// copying, since a snapshot never reads past its own size.
+public class DoubleArray implements DoubleSource {
+
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final int INDEX_THRESHOLD = 64; // Smaller arrays are just scanned
+    private static final int PARALLEL_SORT_THRESHOLD = 1 << 16; // Below this parallelSort gains nothing
+
+    private double[] data;
+    private int size;
+    private final RunningStats stats;
+    private int sortedPrefix; // data[0, sortedPrefix) is ascending in Double.compare order
+    private long edits; // Changes other than appends, see getEditCount()
+    private DoubleIndex index; // Built on the first search of an unsorted array
+    private int sharedUpTo; // data[0, sharedUpTo) may be read by other arrays; copied before a write
+
+    public DoubleArray() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public DoubleArray(int initialCapacity) {
+        data = new double[Math.max(initialCapacity, 1)];
+        stats = new RunningStats();
+    }
+
+    // Heap copy of any source, e.g. to sort a read-only mapped dataset
+    public static DoubleArray copyOf(DoubleSource source) {
+        if (source instanceof DoubleArray) {
+            return new DoubleArray((DoubleArray) source);
+        }
+        DoubleArray copy = new DoubleArray(source.size());
+        source.copyTo(0, copy.data, 0, source.size());
+        copy.absorb(0, source.size());
+        return copy;
+    }
+
+    public DoubleArray(DoubleArray other) {
+        data = Arrays.copyOf(other.data, Math.max(other.size, 1));
+        size = other.size;
+        stats = new RunningStats(other.stats);
+        sortedPrefix = other.sortedPrefix;
+    }
+
+    private DoubleArray(double[] data, int size, RunningStats stats, int sortedPrefix) {
+        this.data = data;
+        this.size = size;
+        this.stats = stats;
+        this.sortedPrefix = sortedPrefix;
+        this.sharedUpTo = Integer.MAX_VALUE; // Any write, even an append, copies first
+    }
+
+    // O(1) copy sharing the backing array, e.g. for a sub-menu's working copy
+    public DoubleArray snapshot() {
+        sharedUpTo = Math.max(sharedUpTo, size);
+        return new DoubleArray(data, size, new RunningStats(stats), sortedPrefix);
+    }
+
+    // Array over values[0, size) that never writes to it, e.g. a SharedDataset snapshot;
+    // sortedness is unknown, so the first sort() sorts everything
+    static DoubleArray sharing(double[] values, int size, RunningStats stats) {
+        return new DoubleArray(values, size, stats, 0);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public double get(int index) {
+        checkIndex(index);
+        return data[index];
+    }
+
+    public void set(int index, double value) {
+        checkIndex(index);
+        if (index < sharedUpTo) unshare();
+        stats.replace(data[index], value);
+        data[index] = value;
+        sortedPrefix = Math.min(sortedPrefix, index);
+        this.index = null;
+        edits++;
+    }
+
+    public void add(double value) {
+        if (size == data.length) {
+            grow(size + 1);
+        } else if (size < sharedUpTo) {
+            unshare();
+        }
+        if (sortedPrefix == size && (size == 0 || Double.compare(data[size - 1], value) <= 0)) {
+            sortedPrefix++;
+        }
+        data[size] = value;
+        if (index != null) {
+            index.add(value, size);
+        }
+        size++;
+        stats.add(value);
+    }
+
+    public double remove(int position) {
+        checkIndex(position);
+        double removed = data[position];
+        if (position < size - 1 && position < sharedUpTo) unshare();
+        System.arraycopy(data, position + 1, data, position, size - position - 1);
+        size--;
+        stats.remove(removed);
+        if (position < sortedPrefix) {
+            sortedPrefix--; // Dropping a value keeps the rest of the prefix in order
+        }
+        edits++;
+        if (index != null) {
+            if (position == size) {
+                index.removeLast(removed, size);
+            } else {
+                index.markStale();
+            }
+        }
+        return removed;
+    }
+
+    // Bulk append; the sorted prefix, index and statistics are updated in one pass
+    public void addAll(double[] values, int from, int to) {
+        int count = to - from;
+        if (size + count > data.length) {
+            grow(size + count);
+        } else if (count > 0 && size < sharedUpTo) {
+            unshare();
+        }
+        System.arraycopy(values, from, data, size, count);
+        absorb(size, size + count);
+    }
+
+    // Replaces the contents in one step, taking ownership of values (no copy)
+    public void replaceAll(double[] values, int count) {
+        if (count < 0 || count > values.length) {
+            throw new IndexOutOfBoundsException("Count: " + count + ", Length: " + values.length);
+        }
+        data = values.length == 0 ? new double[1] : values;
+        sharedUpTo = 0;
+        size = 0;
+        stats.clear();
+        sortedPrefix = 0;
+        index = null;
+        edits++;
+        absorb(0, count);
+    }
+
+    // Accounts for values already written to data[from, to)
+    private void absorb(int from, int to) {
+        for (int i = from; i < to; i++) {
+            double value = data[i];
+            if (sortedPrefix == i && (i == 0 || Double.compare(data[i - 1], value) <= 0)) {
+                sortedPrefix++;
+            }
+            if (index != null) {
+                index.add(value, i);
+            }
+            stats.add(value);
+        }
+        size = to;
+    }
+
+    // Bulk copy out of the backing array, like System.arraycopy
+    @Override
+    public void copyTo(int srcPos, double[] dest, int destPos, int length) {
+        if (srcPos < 0 || length < 0 || srcPos + length > size) {
+            throw new IndexOutOfBoundsException("Range [" + srcPos + ", " + (srcPos + length) + ") out of bounds for size " + size);
+        }
+        System.arraycopy(data, srcPos, dest, destPos, length);
+    }
+
+    public void clear() {
+        size = 0;
+        stats.clear();
+        sortedPrefix = 0;
+        index = null;
+        edits++;
+    }
+
+    // Sorts only the unsorted tail, then merges it into the sorted prefix
+    public void sort() {
+        if (sortedPrefix < size) {
+            if (sharedUpTo > 0) unshare();
+            if (sortedPrefix < size - sortedPrefix) {
+                sortedPrefix = 0; // Mostly unsorted: one full sort beats sort + merge
+            }
+            int tail = size - sortedPrefix;
+            if (tail >= PARALLEL_SORT_THRESHOLD) {
+                Arrays.parallelSort(data, sortedPrefix, size);
+            } else {
+                Arrays.sort(data, sortedPrefix, size);
+            }
+            if (sortedPrefix > 0 && Double.compare(data[sortedPrefix - 1], data[sortedPrefix]) > 0) {
+                mergeTail(tail);
+            }
+            sortedPrefix = size;
+            edits++;
+        }
+        index = null; // Binary search takes over
+    }
+
+    // Merges from the back, so only the tail needs a buffer and values above
+    // the smallest tail value are the only ones moved
+    private void mergeTail(int tail) {
+        double[] buffer = Arrays.copyOfRange(data, sortedPrefix, size);
+        int i = sortedPrefix - 1;
+        int j = tail - 1;
+        int write = size - 1;
+        while (j >= 0) {
+            if (i >= 0 && Double.compare(data[i], buffer[j]) > 0) {
+                data[write--] = data[i--];
+            } else {
+                data[write--] = buffer[j--];
+            }
+        }
+    }
+
+    public boolean isSorted() {
+        return sortedPrefix == size;
+    }
+
+    // Counts every change that is not an append (set, remove, clear, replace, sort);
+    // a copy that saw the same count only lacks the values appended since
+    public long getEditCount() {
+        return edits;
+    }
+
+    // Same matching rules as ArrayList<Double>.indexOf (Double.equals compares the bit patterns)
+    @Override
+    public int indexOf(double value) {
+        if (sortedPrefix == size) {
+            return binarySearchFirst(value);
+        }
+        if (size < INDEX_THRESHOLD) {
+            return scan(value);
+        }
+        if (index == null || index.isStale()) {
+            index = DoubleIndex.of(data, size);
+        }
+        return index.firstIndexOf(value);
+    }
+
+    private int scan(double value) {
+        long bits = Double.doubleToLongBits(value);
+        for (int i = 0; i < size; i++) {
+            if (Double.doubleToLongBits(data[i]) == bits) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // Leftmost match, so duplicates report the same index a linear scan would
+    private int binarySearchFirst(double value) {
+        int low = 0;
+        int high = size - 1;
+        int found = -1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = Double.compare(data[mid], value);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else {
+                if (cmp == 0) found = mid;
+                high = mid - 1;
+            }
+        }
+        return found;
+    }
+
+    // --- Aggregates (O(1) unless a removed min/max forces a rescan) ---
+    @Override
+    public double getSum() {
+        return stats.getSum();
+    }
+
+    @Override
+    public double getAverage() {
+        return stats.getMean();
+    }
+
+    @Override
+    public double getVariance() {
+        return stats.getVariance();
+    }
+
+    @Override
+    public double getStandardDeviation() {
+        return stats.getStandardDeviation();
+    }
+
+    @Override
+    public double getMin() {
+        refreshExtremes();
+        return stats.getMin();
+    }
+
+    @Override
+    public double getMax() {
+        refreshExtremes();
+        return stats.getMax();
+    }
+
+    private void refreshExtremes() {
+        if (stats.isExtremesStale()) {
+            Summary summary = summarize();
+            stats.setExtremes(summary.getMin(), summary.getMax());
+        }
+    }
+
+    // Sum, min, max and variance in a single pass over the backing array (parallel for large arrays)
+    public Summary summarize() {
+        return DoubleReductions.summarize(data, 0, size);
+    }
+
+    private void grow(int minCapacity) {
+        int newCapacity = Math.max(data.length + (data.length >> 1), minCapacity);
+        double[] grown = new double[newCapacity];
+        System.arraycopy(data, 0, grown, 0, size);
+        data = grown;
+        sharedUpTo = 0;
+    }
+
+    // Private copy of the live values before writing to a shared backing array
+    private void unshare() {
+        double[] copy = new double[data.length];
+        System.arraycopy(data, 0, copy, 0, size);
+        data = copy;
+        sharedUpTo = 0;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return DisplayWindow.format(this);
+    }
+
+    // --- Summary Class ---
+    public static class Summary {
+        private final int count;
+        private final double sum;
+        private final double min;
+        private final double max;
+        private final double variance;
+
+        public Summary(int count, double sum, double min, double max, double variance) {
+            this.count = count;
+            this.sum = sum;
+            this.min = min;
+            this.max = max;
+            this.variance = variance;
+        }
+
+        public int getCount() {
+            return count;
+        }
+
+        public double getSum() {
+            return sum;
+        }
+
+        public double getAverage() {
+            return count == 0 ? 0.0 : sum / count;
+        }
+
+        public double getMin() {
+            return min;
+        }
+
+        public double getMax() {
+            return max;
+        }
+
+        // Population variance
+        public double getVariance() {
+            return variance;
+        }
+    }
+    // --- End Summary Class ---
+}
@@ -0,0 +1,178 @@
+import java.util.Arrays;
+
+// Hash index from a double value to the position of its first occurrence, used to
+// answer "Search for an Element" without scanning. Open addressing over primitive
+// arrays (no boxing); keys are compared by bit pattern, like Double.equals.
+//
+// Positions are stored relative to an offset so that adding or removing at the
+// front of the owning sequence shifts every entry in O(1). Changes the index cannot
+// follow cheaply (inserts/removes in the middle, removing a first occurrence that
+// has duplicates) mark it stale; the owner then rebuilds it on the next search.
+public class DoubleIndex {
+
+    private static final int MIN_CAPACITY = 16;
+
+    private long[] keys;
+    private int[] firsts; // First position minus offset
+    private int[] counts; // 0 marks an empty slot
+    private int mask;
+    private int entries;
+    private int offset;
+    private boolean stale;
+
+    public DoubleIndex(int expectedSize) {
+        int capacity = MIN_CAPACITY;
+        while (capacity < expectedSize * 2) {
+            capacity <<= 1;
+        }
+        allocate(capacity);
+    }
+
+    // Index over the first 'size' values of 'values'
+    public static DoubleIndex of(double[] values, int size) {
+        DoubleIndex index = new DoubleIndex(size);
+        for (int i = 0; i < size; i++) {
+            index.add(values[i], i);
+        }
+        return index;
+    }
+
+    public boolean isStale() {
+        return stale;
+    }
+
+    public void markStale() {
+        stale = true;
+    }
+
+    // Position of the first occurrence of value, or -1
+    public int firstIndexOf(double value) {
+        long key = Double.doubleToLongBits(value);
+        int slot = hash(key) & mask;
+        while (counts[slot] != 0) {
+            if (keys[slot] == key) {
+                return firsts[slot] + offset;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    // Records value at 'position' without shifting anything else (e.g. an append)
+    public void add(double value, int position) {
+        long key = Double.doubleToLongBits(value);
+        int slot = hash(key) & mask;
+        while (counts[slot] != 0) {
+            if (keys[slot] == key) {
+                counts[slot]++;
+                if (position - offset < firsts[slot]) {
+                    firsts[slot] = position - offset;
+                }
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        firsts[slot] = position - offset;
+        counts[slot] = 1;
+        if (++entries * 2 > keys.length) {
+            rehash(keys.length << 1);
+        }
+    }
+
+    // Value inserted at position 0; everything else moves up by one
+    public void addFirst(double value) {
+        offset++;
+        add(value, 0);
+    }
+
+    // Value removed from position 0; everything else moves down by one
+    public void removeFirst(double value) {
+        remove(value, 0);
+        offset--;
+    }
+
+    // Value removed from the last position; nothing else moves
+    public void removeLast(double value, int position) {
+        remove(value, position);
+    }
+
+    public void clear() {
+        Arrays.fill(counts, 0);
+        entries = 0;
+        offset = 0;
+        stale = false;
+    }
+
+    private void remove(double value, int position) {
+        long key = Double.doubleToLongBits(value);
+        int slot = hash(key) & mask;
+        while (counts[slot] != 0) {
+            if (keys[slot] == key) {
+                if (--counts[slot] == 0) {
+                    deleteSlot(slot);
+                } else if (firsts[slot] + offset == position) {
+                    stale = true; // The next occurrence is not tracked
+                }
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        stale = true; // Value was never indexed
+    }
+
+    // Backward-shift deletion keeps linear probe chains intact without tombstones
+    private void deleteSlot(int slot) {
+        entries--;
+        int hole = slot;
+        int next = (slot + 1) & mask;
+        while (counts[next] != 0) {
+            int home = hash(keys[next]) & mask;
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                keys[hole] = keys[next];
+                firsts[hole] = firsts[next];
+                counts[hole] = counts[next];
+                hole = next;
+            }
+            next = (next + 1) & mask;
+        }
+        counts[hole] = 0;
+    }
+
+    private void rehash(int newCapacity) {
+        long[] oldKeys = keys;
+        int[] oldFirsts = firsts;
+        int[] oldCounts = counts;
+        allocate(newCapacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldCounts[i] != 0) {
+                int slot = hash(oldKeys[i]) & mask;
+                while (counts[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                firsts[slot] = oldFirsts[i];
+                counts[slot] = oldCounts[i];
+                entries++;
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        firsts = new int[capacity];
+        counts = new int[capacity];
+        mask = capacity - 1;
+        entries = 0;
+    }
+
+    private static int hash(long key) {
+        // 64-bit finalizer from MurmurHash3, folded to an int
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= key >>> 33;
+        return (int) key;
+    }
+}
@@ -0,0 +1,187 @@
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+// Sum, min, max and variance over a range of a double[] (or any DoubleSource) in
+// one pass. Sums use Neumaier (improved Kahan) compensation, so long series do not
+// drift; variance is combined across pieces with Chan's parallel formula. Ranges
+// are always cut into the same tree of LEAF_SIZE pieces and combined in the same
+// order; large ranges just evaluate that tree on the fork/join pool, which means
+// the parallel and sequential results are bit-for-bit identical.
+public class DoubleReductions {
+
+    static final int LEAF_SIZE = 4096;
+    static final int PARALLEL_THRESHOLD = 1 << 17; // Below this forking costs more than it saves
+
+    // Leaf buffer for sources that are not a plain double[] (e.g. a mapped file)
+    private static final ThreadLocal<double[]> SCRATCH = ThreadLocal.withInitial(() -> new double[LEAF_SIZE]);
+
+    private DoubleReductions() {
+    }
+
+    public static double sum(double[] values, int from, int to) {
+        return reduce(values, null, from, to).total();
+    }
+
+    public static DoubleArray.Summary summarize(double[] values, int from, int to) {
+        return toSummary(values, null, from, to);
+    }
+
+    public static DoubleArray.Summary summarize(DoubleSource source) {
+        return toSummary(null, source, 0, source.size());
+    }
+
+    private static DoubleArray.Summary toSummary(double[] values, DoubleSource source, int from, int to) {
+        if (to <= from) {
+            return new DoubleArray.Summary(0, 0.0, Double.NaN, Double.NaN, 0.0);
+        }
+        Partial result = reduce(values, source, from, to);
+        return new DoubleArray.Summary(to - from, result.total(), result.min, result.max, result.m2 / result.count);
+    }
+
+    private static Partial reduce(double[] values, DoubleSource source, int from, int to) {
+        if (to - from >= PARALLEL_THRESHOLD && ForkJoinPool.getCommonPoolParallelism() > 1) {
+            return ForkJoinPool.commonPool().invoke(new ReduceTask(values, source, from, to));
+        }
+        return reduceSequential(values, source, from, to);
+    }
+
+    private static Partial reduceSequential(double[] values, DoubleSource source, int from, int to) {
+        if (to - from <= LEAF_SIZE) {
+            if (values != null) {
+                return reduceLeaf(values, from, to);
+            }
+            double[] scratch = SCRATCH.get();
+            source.copyTo(from, scratch, 0, to - from);
+            return reduceLeaf(scratch, 0, to - from);
+        }
+        int mid = split(from, to);
+        return reduceSequential(values, source, from, mid).combine(reduceSequential(values, source, mid, to));
+    }
+
+    // Midpoint rounded to a whole number of leaves, so the tree only depends on the range
+    private static int split(int from, int to) {
+        int leaves = (to - from + LEAF_SIZE - 1) / LEAF_SIZE;
+        return from + (leaves / 2) * LEAF_SIZE;
+    }
+
+    // Four independent compensated lanes keep the loop free of a serial dependency
+    // on one accumulator, which lets the JIT pipeline (and partly vectorize) it.
+    // The leaf is small enough to stay in cache for the second (variance) pass.
+    static Partial reduceLeaf(double[] values, int from, int to) {
+        double s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+        double c0 = 0, c1 = 0, c2 = 0, c3 = 0;
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        int i = from;
+        for (int end = to - 3; i < end; i += 4) {
+            double x0 = values[i], x1 = values[i + 1], x2 = values[i + 2], x3 = values[i + 3];
+            double t0 = s0 + x0, t1 = s1 + x1, t2 = s2 + x2, t3 = s3 + x3;
+            c0 += Math.abs(s0) >= Math.abs(x0) ? (s0 - t0) + x0 : (x0 - t0) + s0;
+            c1 += Math.abs(s1) >= Math.abs(x1) ? (s1 - t1) + x1 : (x1 - t1) + s1;
+            c2 += Math.abs(s2) >= Math.abs(x2) ? (s2 - t2) + x2 : (x2 - t2) + s2;
+            c3 += Math.abs(s3) >= Math.abs(x3) ? (s3 - t3) + x3 : (x3 - t3) + s3;
+            s0 = t0; s1 = t1; s2 = t2; s3 = t3;
+            min = Math.min(min, Math.min(Math.min(x0, x1), Math.min(x2, x3)));
+            max = Math.max(max, Math.max(Math.max(x0, x1), Math.max(x2, x3)));
+        }
+        for (; i < to; i++) {
+            double x = values[i];
+            double t = s0 + x;
+            c0 += Math.abs(s0) >= Math.abs(x) ? (s0 - t) + x : (x - t) + s0;
+            s0 = t;
+            min = Math.min(min, x);
+            max = Math.max(max, x);
+        }
+        Partial partial = new Partial(to - from, s0, c0, min, max);
+        partial.add(s1, c1);
+        partial.add(s2, c2);
+        partial.add(s3, c3);
+
+        double mean = partial.total() / partial.count;
+        double m0 = 0, m1 = 0, m2 = 0, m3 = 0;
+        i = from;
+        for (int end = to - 3; i < end; i += 4) {
+            double d0 = values[i] - mean, d1 = values[i + 1] - mean, d2 = values[i + 2] - mean, d3 = values[i + 3] - mean;
+            m0 += d0 * d0;
+            m1 += d1 * d1;
+            m2 += d2 * d2;
+            m3 += d3 * d3;
+        }
+        for (; i < to; i++) {
+            double d = values[i] - mean;
+            m0 += d * d;
+        }
+        partial.m2 = (m0 + m1) + (m2 + m3);
+        return partial;
+    }
+
+    // --- Partial Result Class ---
+    static final class Partial {
+        long count;
+        double sum;
+        double compensation;
+        double min;
+        double max;
+        double m2; // Sum of squared distances from this piece's mean
+
+        Partial(long count, double sum, double compensation, double min, double max) {
+            this.count = count;
+            this.sum = sum;
+            this.compensation = compensation;
+            this.min = min;
+            this.max = max;
+        }
+
+        // Neumaier step for another compensated sum
+        void add(double otherSum, double otherCompensation) {
+            double t = sum + otherSum;
+            compensation += Math.abs(sum) >= Math.abs(otherSum) ? (sum - t) + otherSum : (otherSum - t) + sum;
+            compensation += otherCompensation;
+            sum = t;
+        }
+
+        Partial combine(Partial other) {
+            double delta = other.total() / other.count - total() / count;
+            long combined = count + other.count;
+            m2 += other.m2 + delta * delta * ((double) count * other.count / combined);
+            count = combined;
+            add(other.sum, other.compensation);
+            min = Math.min(min, other.min);
+            max = Math.max(max, other.max);
+            return this;
+        }
+
+        double total() {
+            return sum + compensation;
+        }
+    }
+    // --- End Partial Result Class ---
+
+    private static final class ReduceTask extends RecursiveTask<Partial> {
+        private static final long serialVersionUID = 1L;
+
+        private final double[] values;
+        private final DoubleSource source;
+        private final int from;
+        private final int to;
+
+        ReduceTask(double[] values, DoubleSource source, int from, int to) {
+            this.values = values;
+            this.source = source;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Partial compute() {
+            if (to - from <= PARALLEL_THRESHOLD) {
+                return reduceSequential(values, source, from, to);
+            }
+            int mid = split(from, to);
+            ReduceTask left = new ReduceTask(values, source, from, mid);
+            left.fork();
+            Partial right = new ReduceTask(values, source, mid, to).compute();
+            return left.join().combine(right);
+        }
+    }
+}
@@ -0,0 +1,205 @@
+import java.util.NoSuchElementException;
+
+// FIFO queue of primitive doubles in a circular buffer. Dequeue and bulk removal
+// from the front only move the head index, and rotating a full buffer only moves
+// the head too. An optional capacity limit turns it into a bounded queue that
+// rejects offers when full.
+// A queue made with of() keeps reading its front values from the source: enqueues
+// go to a private buffer behind them, so creating it is O(1) and dequeue, peek,
+// shrink and enqueue never copy the source. Only a rotation copies source values,
+// and only the ones it moves to the back.
+public class DoubleRingQueue implements DoubleSequence {
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private DoubleSource frozen; // Read-only source of the front values; null once they are all gone
+    private int frozenHead;
+    private int frozenSize; // The front frozenSize values are frozen[frozenHead, frozenHead + frozenSize)
+    private double[] buffer; // The values behind them: buffered of them, starting at head
+    private int head;
+    private int buffered;
+    private int size; // frozenSize + buffered
+    private int maxCapacity; // 0 means unbounded
+
+    public DoubleRingQueue() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public DoubleRingQueue(int initialCapacity) {
+        buffer = new double[Math.max(initialCapacity, 1)];
+    }
+
+    // A DoubleArray is snapshotted; other sources are read-only already
+    public static DoubleRingQueue of(DoubleSource values) {
+        DoubleRingQueue queue = new DoubleRingQueue();
+        queue.frozen = values instanceof DoubleArray ? ((DoubleArray) values).snapshot() : values;
+        queue.frozenSize = values.size();
+        queue.size = queue.frozenSize;
+        if (queue.frozenSize == 0) queue.frozen = null;
+        return queue;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean isBounded() {
+        return maxCapacity > 0;
+    }
+
+    public int getMaxCapacity() {
+        return maxCapacity;
+    }
+
+    // 0 removes the limit. Returns false if the queue already holds more than the new limit.
+    public boolean setMaxCapacity(int maxCapacity) {
+        if (maxCapacity < 0 || (maxCapacity > 0 && size > maxCapacity)) {
+            return false;
+        }
+        this.maxCapacity = maxCapacity;
+        if (maxCapacity > 0 && buffer.length > maxCapacity) {
+            resize(maxCapacity);
+        }
+        return true;
+    }
+
+    // Returns false when a bounded queue is full
+    public boolean offer(double value) {
+        if (maxCapacity > 0 && size >= maxCapacity) {
+            return false;
+        }
+        ensureCapacity(buffered + 1);
+        buffer[physical(buffered)] = value;
+        buffered++;
+        size++;
+        return true;
+    }
+
+    public double poll() {
+        double value = peek();
+        shrink(1);
+        return value;
+    }
+
+    public double peek() {
+        if (size == 0) {
+            throw new NoSuchElementException("Queue is empty");
+        }
+        return valueAt(0);
+    }
+
+    @Override
+    public double get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        return valueAt(index);
+    }
+
+    // Drops up to count elements from the front by moving the heads; returns how many went
+    public int shrink(int count) {
+        int removed = Math.max(0, Math.min(count, size));
+        int fromFrozen = Math.min(removed, frozenSize);
+        dropFrozen(fromFrozen);
+        int fromBuffer = removed - fromFrozen;
+        head = physical(fromBuffer);
+        buffered -= fromBuffer;
+        size -= removed;
+        if (buffered == 0) head = 0;
+        return removed;
+    }
+
+    // Positive positions move front elements to the back. A full buffer rotates by
+    // moving the head alone; otherwise at most size/2 elements cross the gap. Values
+    // still read from the source are copied to the back only when the rotation
+    // moves them there.
+    public void rotate(int positions) {
+        if (size < 2) return;
+        int shift = positions % size;
+        if (shift < 0) shift += size;
+        if (shift == 0) return;
+        if (frozenSize > 0) {
+            int moved = Math.min(shift, frozenSize);
+            ensureCapacity(buffered + moved);
+            int at = physical(buffered);
+            int firstPart = Math.min(moved, buffer.length - at);
+            frozen.copyTo(frozenHead, buffer, at, firstPart);
+            frozen.copyTo(frozenHead + firstPart, buffer, 0, moved - firstPart);
+            buffered += moved;
+            dropFrozen(moved);
+            shift -= moved;
+            if (shift == 0) return;
+        }
+        if (buffered == buffer.length) {
+            head = physical(shift);
+        } else if (shift <= buffered / 2) {
+            for (int i = 0; i < shift; i++) {
+                buffer[physical(buffered)] = buffer[head];
+                head = physical(1);
+            }
+        } else {
+            for (int i = shift; i < buffered; i++) {
+                head = head == 0 ? buffer.length - 1 : head - 1;
+                buffer[head] = buffer[physical(buffered)];
+            }
+        }
+    }
+
+    public void clear() {
+        frozen = null;
+        frozenHead = 0;
+        frozenSize = 0;
+        head = 0;
+        buffered = 0;
+        size = 0;
+    }
+
+    private double valueAt(int index) {
+        return index < frozenSize ? frozen.get(frozenHead + index) : buffer[physical(index - frozenSize)];
+    }
+
+    private void dropFrozen(int removed) {
+        frozenHead += removed;
+        frozenSize -= removed;
+        if (frozenSize == 0) {
+            frozen = null; // Lets the source go once nothing reads from it
+            frozenHead = 0;
+        }
+    }
+
+    private void ensureCapacity(int needed) {
+        if (needed <= buffer.length) return;
+        int newCapacity = Math.max(buffer.length + (buffer.length >> 1), needed);
+        resize(maxCapacity > 0 ? Math.min(newCapacity, maxCapacity) : newCapacity);
+    }
+
+    private int physical(int index) {
+        int position = head + index;
+        return position >= buffer.length ? position - buffer.length : position;
+    }
+
+    private void resize(int newCapacity) {
+        double[] newBuffer = new double[Math.max(newCapacity, 1)];
+        int firstPart = Math.min(buffered, buffer.length - head);
+        System.arraycopy(buffer, head, newBuffer, 0, firstPart);
+        System.arraycopy(buffer, 0, newBuffer, firstPart, buffered - firstPart);
+        buffer = newBuffer;
+        head = 0;
+    }
+
+    // Elements [from, from + count) in queue order, windowed like toString()
+    public String toString(int from, int count) {
+        int end = Math.min(size, from + count);
+        return DisplayWindow.format(Math.max(end - from, 0), i -> valueAt(from + i));
+    }
+
+    @Override
+    public String toString() {
+        return DisplayWindow.format(this);
+    }
+}
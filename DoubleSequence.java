@@ -0,0 +1,31 @@
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+// Ordered run of primitive doubles that can be displayed: the array, list and
+// queue views and every DoubleSource.
+public interface DoubleSequence {
+
+    int size();
+
+    double get(int index);
+
+    // Values in order without boxing; implementations with slow get() override it
+    default PrimitiveIterator.OfDouble iterator() {
+        return new PrimitiveIterator.OfDouble() {
+            private int next;
+
+            @Override
+            public boolean hasNext() {
+                return next < size();
+            }
+
+            @Override
+            public double nextDouble() {
+                if (next >= size()) {
+                    throw new NoSuchElementException();
+                }
+                return get(next++);
+            }
+        };
+    }
+}
@@ -0,0 +1,26 @@
+// Read-only view of a numeric dataset shared by the array, list and queue menus.
+// Implemented by the in-memory DoubleArray and by MappedDataset for binary files.
+public interface DoubleSource extends DoubleSequence {
+
+    // Bulk copy of [srcPos, srcPos + length) into dest, like System.arraycopy
+    void copyTo(int srcPos, double[] dest, int destPos, int length);
+
+    // First position holding value (compared like Double.equals), or -1
+    int indexOf(double value);
+
+    double getSum();
+
+    double getAverage();
+
+    double getMin();
+
+    double getMax();
+
+    double getVariance();
+
+    double getStandardDeviation();
+
+    default boolean isEmpty() {
+        return size() == 0;
+    }
+}
@@ -0,0 +1,460 @@
+import java.util.Arrays;
+
+// Arithmetic expression compiled once into a tree of nodes and evaluated over a
+// whole dataset, e.g. "(x - mean) / stddev * 100".
+//
+//   x                    the current element          i        its index (0-based)
+//   n, sum, mean, min,   aggregates of the dataset, bound once per evaluation
+//   max, variance, stddev
+//   pi, e                constants
+//   + - * / % ^ ( )      ^ is power and binds tighter than unary minus
+//   abs sqrt exp ln log10 sin cos tan floor ceil round    one-argument functions
+//   min(a, b) max(a, b) pow(a, b)                         two-argument functions
+//
+// Evaluation runs block by block: every node fills a primitive buffer for a block
+// of BLOCK_SIZE elements in one tight loop, instead of walking the tree once per
+// element. Subtrees that do not depend on x or i (constants and aggregates) are
+// computed once per block and applied as scalars; constant-only subtrees are folded
+// at compile time. No boxing or parsing happens while evaluating.
+public class Expression {
+
+    static final int BLOCK_SIZE = 1024;
+
+    // Aggregate slots
+    private static final String[] AGGREGATES = {"n", "sum", "mean", "min", "max", "variance", "stddev"};
+    private static final int N = 0, SUM = 1, MEAN = 2, MIN = 3, MAX = 4, VARIANCE = 5, STDDEV = 6;
+
+    // Operation codes
+    private static final int ADD = 0, SUB = 1, MUL = 2, DIV = 3, MOD = 4, POW = 5, MINIMUM = 6, MAXIMUM = 7;
+    private static final int NEG = 10, ABS = 11, SQRT = 12, EXP = 13, LN = 14, LOG10 = 15, SIN = 16, COS = 17,
+            TAN = 18, FLOOR = 19, CEIL = 20, ROUND = 21;
+    private static final String[] FUNCTIONS = {"abs", "sqrt", "exp", "ln", "log10", "sin", "cos", "tan", "floor", "ceil", "round"};
+
+    private final String text;
+    private final Node root;
+    private final double[] aggregates = new double[AGGREGATES.length];
+    private int usedAggregates; // Bit mask of the aggregate slots the expression reads
+
+    // Parser state, only used while compiling
+    private int position;
+
+    private Expression(String text) {
+        this.text = text;
+        this.root = parseExpression();
+        skipSpaces();
+        if (position < text.length()) {
+            throw error("Unexpected '" + text.charAt(position) + "'");
+        }
+    }
+
+    public static Expression compile(String text) {
+        if (text == null || text.trim().isEmpty()) {
+            throw new IllegalArgumentException("Expression is empty.");
+        }
+        return new Expression(text);
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    // Evaluates the expression for every element of source into a new array
+    public double[] evaluate(DoubleSource source) {
+        bind(source);
+        int size = source.size();
+        double[] results = new double[size];
+        double[] xs = new double[BLOCK_SIZE];
+        double[] block = new double[BLOCK_SIZE];
+        for (int base = 0; base < size; base += BLOCK_SIZE) {
+            int length = Math.min(BLOCK_SIZE, size - base);
+            source.copyTo(base, xs, 0, length);
+            root.evalBlock(xs, base, length, block);
+            System.arraycopy(block, 0, results, base, length);
+        }
+        return results;
+    }
+
+    // Single value, with the aggregates of the last evaluate() (or zero)
+    public double evaluate(double x, int index) {
+        return root.evalScalar(x, index);
+    }
+
+    private void bind(DoubleSource source) {
+        if (usedAggregates == 0) return;
+        aggregates[N] = source.size();
+        if (uses(SUM)) aggregates[SUM] = source.getSum();
+        if (uses(MEAN)) aggregates[MEAN] = source.getAverage();
+        if (uses(MIN)) aggregates[MIN] = source.isEmpty() ? Double.NaN : source.getMin();
+        if (uses(MAX)) aggregates[MAX] = source.isEmpty() ? Double.NaN : source.getMax();
+        if (uses(VARIANCE)) aggregates[VARIANCE] = source.getVariance();
+        if (uses(STDDEV)) aggregates[STDDEV] = source.getStandardDeviation();
+    }
+
+    private boolean uses(int slot) {
+        return (usedAggregates & (1 << slot)) != 0;
+    }
+
+    // --- Parser (recursive descent) ---
+    private Node parseExpression() {
+        Node node = parseTerm();
+        while (true) {
+            if (accept('+')) node = binary(ADD, node, parseTerm());
+            else if (accept('-')) node = binary(SUB, node, parseTerm());
+            else return node;
+        }
+    }
+
+    private Node parseTerm() {
+        Node node = parseUnary();
+        while (true) {
+            if (accept('*')) node = binary(MUL, node, parseUnary());
+            else if (accept('/')) node = binary(DIV, node, parseUnary());
+            else if (accept('%')) node = binary(MOD, node, parseUnary());
+            else return node;
+        }
+    }
+
+    private Node parseUnary() {
+        if (accept('-')) return unary(NEG, parseUnary());
+        if (accept('+')) return parseUnary();
+        return parsePower();
+    }
+
+    private Node parsePower() {
+        Node base = parsePrimary();
+        if (accept('^')) {
+            return binary(POW, base, parseUnary()); // Right-associative
+        }
+        return base;
+    }
+
+    private Node parsePrimary() {
+        skipSpaces();
+        if (position >= text.length()) {
+            throw error("Unexpected end of expression");
+        }
+        char c = text.charAt(position);
+        if (accept('(')) {
+            Node inner = parseExpression();
+            expect(')');
+            return inner;
+        }
+        if (Character.isDigit(c) || c == '.') {
+            return parseNumber();
+        }
+        if (Character.isLetter(c)) {
+            String name = parseName();
+            if (accept('(')) {
+                return parseFunction(name);
+            }
+            return variable(name);
+        }
+        throw error("Unexpected '" + c + "'");
+    }
+
+    private Node parseNumber() {
+        int start = position;
+        while (position < text.length() && (Character.isDigit(text.charAt(position)) || text.charAt(position) == '.')) {
+            position++;
+        }
+        if (position < text.length() && (text.charAt(position) == 'e' || text.charAt(position) == 'E')) {
+            int mark = position++;
+            if (position < text.length() && (text.charAt(position) == '+' || text.charAt(position) == '-')) position++;
+            if (position < text.length() && Character.isDigit(text.charAt(position))) {
+                while (position < text.length() && Character.isDigit(text.charAt(position))) position++;
+            } else {
+                position = mark; // Not an exponent; the "e" is left for the caller, so "2e" is a syntax error
+            }
+        }
+        try {
+            return new Constant(Double.parseDouble(text.substring(start, position)));
+        } catch (NumberFormatException e) {
+            throw error("Invalid number '" + text.substring(start, position) + "'");
+        }
+    }
+
+    private String parseName() {
+        int start = position;
+        while (position < text.length() && Character.isLetterOrDigit(text.charAt(position))) {
+            position++;
+        }
+        return text.substring(start, position).toLowerCase();
+    }
+
+    private Node parseFunction(String name) {
+        Node first = parseExpression();
+        if (name.equals("min") || name.equals("max") || name.equals("pow")) {
+            expect(',');
+            Node second = parseExpression();
+            expect(')');
+            return binary(name.equals("min") ? MINIMUM : name.equals("max") ? MAXIMUM : POW, first, second);
+        }
+        expect(')');
+        for (int f = 0; f < FUNCTIONS.length; f++) {
+            if (FUNCTIONS[f].equals(name)) {
+                return unary(ABS + f, first);
+            }
+        }
+        throw error("Unknown function '" + name + "'");
+    }
+
+    private Node variable(String name) {
+        switch (name) {
+            case "x":
+                return new Element();
+            case "i":
+                return new Index();
+            case "pi":
+                return new Constant(Math.PI);
+            case "e":
+                return new Constant(Math.E);
+            default:
+                for (int slot = 0; slot < AGGREGATES.length; slot++) {
+                    if (AGGREGATES[slot].equals(name)) {
+                        usedAggregates |= 1 << slot;
+                        return new Aggregate(slot);
+                    }
+                }
+                throw error("Unknown variable '" + name + "'");
+        }
+    }
+
+    private Node binary(int op, Node left, Node right) {
+        Node node = new Binary(op, left, right);
+        return left instanceof Constant && right instanceof Constant ? new Constant(node.evalScalar(0, 0)) : node;
+    }
+
+    private Node unary(int op, Node operand) {
+        Node node = new Unary(op, operand);
+        return operand instanceof Constant ? new Constant(node.evalScalar(0, 0)) : node;
+    }
+
+    private boolean accept(char expected) {
+        skipSpaces();
+        if (position < text.length() && text.charAt(position) == expected) {
+            position++;
+            return true;
+        }
+        return false;
+    }
+
+    private void expect(char expected) {
+        if (!accept(expected)) {
+            throw error("Expected '" + expected + "'");
+        }
+    }
+
+    private void skipSpaces() {
+        while (position < text.length() && Character.isWhitespace(text.charAt(position))) {
+            position++;
+        }
+    }
+
+    private IllegalArgumentException error(String message) {
+        return new IllegalArgumentException(message + " at position " + (position + 1) + " in \"" + text + "\".");
+    }
+
+    // --- Operations ---
+    static double apply(int op, double a, double b) {
+        switch (op) {
+            case ADD: return a + b;
+            case SUB: return a - b;
+            case MUL: return a * b;
+            case DIV: return a / b;
+            case MOD: return a % b;
+            case POW: return Math.pow(a, b);
+            case MINIMUM: return Math.min(a, b);
+            case MAXIMUM: return Math.max(a, b);
+            default: throw new IllegalStateException("Unknown operation " + op);
+        }
+    }
+
+    static double apply(int op, double a) {
+        switch (op) {
+            case NEG: return -a;
+            case ABS: return Math.abs(a);
+            case SQRT: return Math.sqrt(a);
+            case EXP: return Math.exp(a);
+            case LN: return Math.log(a);
+            case LOG10: return Math.log10(a);
+            case SIN: return Math.sin(a);
+            case COS: return Math.cos(a);
+            case TAN: return Math.tan(a);
+            case FLOOR: return Math.floor(a);
+            case CEIL: return Math.ceil(a);
+            case ROUND: return Math.rint(a);
+            default: throw new IllegalStateException("Unknown operation " + op);
+        }
+    }
+
+    // --- Node Classes ---
+    private abstract static class Node {
+        // True when the value does not depend on x or i
+        abstract boolean isScalar();
+
+        abstract double evalScalar(double x, int index);
+
+        // dst[k] = value for element xs[k] at index base + k, for k < length
+        abstract void evalBlock(double[] xs, int base, int length, double[] dst);
+    }
+
+    private static final class Constant extends Node {
+        private final double value;
+
+        Constant(double value) {
+            this.value = value;
+        }
+
+        boolean isScalar() { return true; }
+
+        double evalScalar(double x, int index) { return value; }
+
+        void evalBlock(double[] xs, int base, int length, double[] dst) {
+            Arrays.fill(dst, 0, length, value);
+        }
+    }
+
+    private final class Aggregate extends Node {
+        private final int slot;
+
+        Aggregate(int slot) {
+            this.slot = slot;
+        }
+
+        boolean isScalar() { return true; }
+
+        double evalScalar(double x, int index) { return aggregates[slot]; }
+
+        void evalBlock(double[] xs, int base, int length, double[] dst) {
+            Arrays.fill(dst, 0, length, aggregates[slot]);
+        }
+    }
+
+    private static final class Element extends Node {
+        boolean isScalar() { return false; }
+
+        double evalScalar(double x, int index) { return x; }
+
+        void evalBlock(double[] xs, int base, int length, double[] dst) {
+            System.arraycopy(xs, 0, dst, 0, length);
+        }
+    }
+
+    private static final class Index extends Node {
+        boolean isScalar() { return false; }
+
+        double evalScalar(double x, int index) { return index; }
+
+        void evalBlock(double[] xs, int base, int length, double[] dst) {
+            for (int k = 0; k < length; k++) dst[k] = base + k;
+        }
+    }
+
+    private static final class Unary extends Node {
+        private final int op;
+        private final Node operand;
+
+        Unary(int op, Node operand) {
+            this.op = op;
+            this.operand = operand;
+        }
+
+        boolean isScalar() { return operand.isScalar(); }
+
+        double evalScalar(double x, int index) { return apply(op, operand.evalScalar(x, index)); }
+
+        void evalBlock(double[] xs, int base, int length, double[] dst) {
+            if (isScalar()) {
+                Arrays.fill(dst, 0, length, evalScalar(0, 0));
+                return;
+            }
+            operand.evalBlock(xs, base, length, dst);
+            switch (op) {
+                case NEG:
+                    for (int k = 0; k < length; k++) dst[k] = -dst[k];
+                    break;
+                case ABS:
+                    for (int k = 0; k < length; k++) dst[k] = Math.abs(dst[k]);
+                    break;
+                case SQRT:
+                    for (int k = 0; k < length; k++) dst[k] = Math.sqrt(dst[k]);
+                    break;
+                default:
+                    for (int k = 0; k < length; k++) dst[k] = apply(op, dst[k]);
+            }
+        }
+    }
+
+    private static final class Binary extends Node {
+        private final int op;
+        private final Node left;
+        private final Node right;
+        private double[] rightValues; // Buffer for the right operand, allocated on first use
+
+        Binary(int op, Node left, Node right) {
+            this.op = op;
+            this.left = left;
+            this.right = right;
+        }
+
+        boolean isScalar() { return left.isScalar() && right.isScalar(); }
+
+        double evalScalar(double x, int index) {
+            return apply(op, left.evalScalar(x, index), right.evalScalar(x, index));
+        }
+
+        void evalBlock(double[] xs, int base, int length, double[] dst) {
+            if (isScalar()) {
+                Arrays.fill(dst, 0, length, evalScalar(0, 0));
+            } else if (right.isScalar()) {
+                left.evalBlock(xs, base, length, dst);
+                applyScalarRight(dst, right.evalScalar(0, 0), length);
+            } else if (left.isScalar()) {
+                right.evalBlock(xs, base, length, dst);
+                applyScalarLeft(left.evalScalar(0, 0), dst, length);
+            } else {
+                if (rightValues == null) rightValues = new double[BLOCK_SIZE];
+                left.evalBlock(xs, base, length, dst);
+                right.evalBlock(xs, base, length, rightValues);
+                applyArrays(dst, rightValues, length);
+            }
+        }
+
+        // The common operators get their own loops so the JIT can vectorize them
+        private void applyScalarRight(double[] dst, double b, int length) {
+            switch (op) {
+                case ADD: for (int k = 0; k < length; k++) dst[k] += b; break;
+                case SUB: for (int k = 0; k < length; k++) dst[k] -= b; break;
+                case MUL: for (int k = 0; k < length; k++) dst[k] *= b; break;
+                case DIV: for (int k = 0; k < length; k++) dst[k] /= b; break;
+                default: for (int k = 0; k < length; k++) dst[k] = apply(op, dst[k], b);
+            }
+        }
+
+        private void applyScalarLeft(double a, double[] dst, int length) {
+            switch (op) {
+                case ADD: for (int k = 0; k < length; k++) dst[k] = a + dst[k]; break;
+                case SUB: for (int k = 0; k < length; k++) dst[k] = a - dst[k]; break;
+                case MUL: for (int k = 0; k < length; k++) dst[k] = a * dst[k]; break;
+                case DIV: for (int k = 0; k < length; k++) dst[k] = a / dst[k]; break;
+                default: for (int k = 0; k < length; k++) dst[k] = apply(op, a, dst[k]);
+            }
+        }
+
+        private void applyArrays(double[] dst, double[] b, int length) {
+            switch (op) {
+                case ADD: for (int k = 0; k < length; k++) dst[k] += b[k]; break;
+                case SUB: for (int k = 0; k < length; k++) dst[k] -= b[k]; break;
+                case MUL: for (int k = 0; k < length; k++) dst[k] *= b[k]; break;
+                case DIV: for (int k = 0; k < length; k++) dst[k] /= b[k]; break;
+                default: for (int k = 0; k < length; k++) dst[k] = apply(op, dst[k], b[k]);
+            }
+        }
+    }
+    // --- End Node Classes ---
+
+    @Override
+    public String toString() {
+        return text;
+    }
+}
@@ -0,0 +1,64 @@
+import java.util.Arrays;
+
+// HyperLogLog distinct-value counter (Flajolet et al., with the linear counting
+// correction for small counts). Each value is hashed to 64 bits; the top p bits
+// pick one of 2^p registers, which keeps the longest run of leading zeros seen in
+// the remaining bits. Memory is 2^p bytes whatever the stream length and the
+// standard error is 1.04 / sqrt(2^p): 0.81% at the default p = 14 (16 KB).
+public class HyperLogLog {
+
+    public static final int DEFAULT_PRECISION = 14;
+
+    private final int precision;
+    private final byte[] registers;
+
+    public HyperLogLog() {
+        this(DEFAULT_PRECISION);
+    }
+
+    public HyperLogLog(int precision) {
+        if (precision < 4 || precision > 18) {
+            throw new IllegalArgumentException("Precision must be between 4 and 18.");
+        }
+        this.precision = precision;
+        this.registers = new byte[1 << precision];
+    }
+
+    // Values are distinct when Double.equals would say so (-0.0 and 0.0 differ)
+    public void add(double value) {
+        long hash = mix(Double.doubleToLongBits(value));
+        int register = (int) (hash >>> (64 - precision));
+        // A guard bit bounds the rank at 64 - precision + 1
+        int rank = Long.numberOfLeadingZeros((hash << precision) | (1L << (precision - 1))) + 1;
+        if (rank > registers[register]) {
+            registers[register] = (byte) rank;
+        }
+    }
+
+    public long estimate() {
+        int m = registers.length;
+        double sum = 0;
+        int zeros = 0;
+        for (byte register : registers) {
+            sum += 1.0 / (1L << register);
+            if (register == 0) zeros++;
+        }
+        double alpha = 0.7213 / (1 + 1.079 / m);
+        double estimate = alpha * m * m / sum;
+        if (estimate <= 2.5 * m && zeros > 0) {
+            estimate = m * Math.log((double) m / zeros); // Linear counting is better for small counts
+        }
+        return Math.round(estimate);
+    }
+
+    public void clear() {
+        Arrays.fill(registers, (byte) 0);
+    }
+
+    // SplitMix64 finalizer: spreads nearby bit patterns (e.g. 1.0, 2.0) over all 64 bits
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,162 @@
+import java.util.Arrays;
+
+// KLL quantile sketch (Karnin, Lang and Liberty). Keeps a few hundred values in a
+// stack of levels, level h standing for 2^h stream values each: when a level fills
+// up it is sorted and every other value (odd or even positions, chosen at random)
+// moves up a level, which halves its size and doubles the weight. Levels shrink
+// geometrically towards the bottom, so memory stays at about 3k values plus one
+// small level per doubling of the stream; the rank error is about 1.7 / k.
+public class KllSketch {
+
+    public static final int DEFAULT_K = 200;
+    private static final double CAPACITY_DECAY = 2.0 / 3.0;
+    private static final int MIN_CAPACITY = 2;
+
+    private final int k;
+    private double[][] levels = new double[1][];
+    private int[] levelSizes = new int[1];
+    private int height = 1;
+    private int retained;
+    private int maxRetained;
+    private long count;
+    private double min = Double.NaN;
+    private double max = Double.NaN;
+    private long randomState = 0x9E3779B97F4A7C15L; // xorshift state for the compaction coin
+
+    public KllSketch() {
+        this(DEFAULT_K);
+    }
+
+    public KllSketch(int k) {
+        if (k < 8) {
+            throw new IllegalArgumentException("k must be at least 8.");
+        }
+        this.k = k;
+        levels[0] = new double[capacity(0)];
+        maxRetained = capacity(0);
+    }
+
+    public void add(double value) {
+        if (count == 0) {
+            min = value;
+            max = value;
+        } else {
+            if (value < min) min = value;
+            if (value > max) max = value;
+        }
+        count++;
+        append(0, value);
+        retained++;
+        if (retained >= maxRetained) {
+            compress();
+        }
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public int getRetained() {
+        return retained;
+    }
+
+    // Value at the given fraction (0 to 1) of the stream, within about 1.7 / k in rank
+    public double quantile(double fraction) {
+        if (count == 0) {
+            return Double.NaN;
+        }
+        if (fraction <= 0.0) return min;
+        if (fraction >= 1.0) return max;
+        // Merge the sorted levels, accumulating each value's weight (2^level)
+        double[][] sorted = new double[height][];
+        for (int h = 0; h < height; h++) {
+            sorted[h] = Arrays.copyOf(levels[h], levelSizes[h]);
+            Arrays.sort(sorted[h]);
+        }
+        int[] next = new int[height];
+        double target = fraction * count;
+        long cumulative = 0;
+        while (true) {
+            int best = -1;
+            for (int h = 0; h < height; h++) {
+                if (next[h] < sorted[h].length
+                        && (best < 0 || Double.compare(sorted[h][next[h]], sorted[best][next[best]]) < 0)) {
+                    best = h;
+                }
+            }
+            if (best < 0) break;
+            cumulative += 1L << best;
+            double value = sorted[best][next[best]++];
+            if (cumulative >= target) {
+                return value;
+            }
+        }
+        return max;
+    }
+
+    public void clear() {
+        levels = new double[1][];
+        levelSizes = new int[1];
+        height = 1;
+        levels[0] = new double[capacity(0)];
+        maxRetained = capacity(0);
+        retained = 0;
+        count = 0;
+        min = Double.NaN;
+        max = Double.NaN;
+    }
+
+    // Capacity of level h: the top level holds k values, each one below 2/3 of that
+    private int capacity(int h) {
+        int depth = height - h - 1;
+        return Math.max(MIN_CAPACITY, (int) Math.ceil(k * Math.pow(CAPACITY_DECAY, depth))) + 1;
+    }
+
+    // Compacts the lowest level that is over its capacity
+    private void compress() {
+        for (int h = 0; h < height; h++) {
+            if (levelSizes[h] < capacity(h)) continue;
+            if (h + 1 == height) addLevel();
+            double[] level = levels[h];
+            int size = levelSizes[h];
+            Arrays.sort(level, 0, size);
+            // An odd value out (the smallest) stays behind
+            int first = size & 1;
+            int offset = nextCoin() ? 1 : 0;
+            for (int i = first + offset; i < size; i += 2) {
+                append(h + 1, level[i]);
+            }
+            if (first == 1) {
+                levelSizes[h] = 1;
+            } else {
+                levelSizes[h] = 0;
+            }
+            retained = 0;
+            for (int l = 0; l < height; l++) retained += levelSizes[l];
+            return;
+        }
+    }
+
+    private void addLevel() {
+        levels = Arrays.copyOf(levels, height + 1);
+        levelSizes = Arrays.copyOf(levelSizes, height + 1);
+        height++;
+        levels[height - 1] = new double[capacity(height - 1)];
+        maxRetained = 0;
+        for (int h = 0; h < height; h++) maxRetained += capacity(h);
+    }
+
+    private void append(int h, double value) {
+        if (levelSizes[h] == levels[h].length) {
+            levels[h] = Arrays.copyOf(levels[h], levels[h].length * 2);
+        }
+        levels[h][levelSizes[h]++] = value;
+    }
+
+    private boolean nextCoin() {
+        randomState ^= randomState << 13;
+        randomState ^= randomState >>> 7;
+        randomState ^= randomState << 17;
+        return (randomState & 1) != 0;
+    }
+}
@@ -0,0 +1,144 @@
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// Read-only dataset backed by a memory-mapped file of little-endian doubles. The
+// file is mapped in segments of up to 1 GiB (a single mapping is limited to 2 GiB),
+// so opening is instant and the values never occupy the Java heap; the OS pages
+// them in as they are read. Aggregates are computed once, on first request.
+public class MappedDataset implements DoubleSource {
+
+    private static final int SEGMENT_SHIFT = 27; // 2^27 doubles = 1 GiB per mapping
+    private static final int SEGMENT_SIZE = 1 << SEGMENT_SHIFT;
+    private static final int SEGMENT_MASK = SEGMENT_SIZE - 1;
+    private static final int SCAN_CHUNK = 4096;
+
+    private final Path path;
+    private final DoubleBuffer[] segments;
+    private final int size;
+    private DoubleArray.Summary summary; // Lazily computed; the data never changes
+
+    private MappedDataset(Path path, DoubleBuffer[] segments, int size) {
+        this.path = path;
+        this.segments = segments;
+        this.size = size;
+    }
+
+    public static MappedDataset open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long bytes = channel.size();
+            if (bytes % Double.BYTES != 0) {
+                throw new IOException("File size " + bytes + " is not a multiple of " + Double.BYTES + " bytes.");
+            }
+            long count = bytes / Double.BYTES;
+            if (count > Integer.MAX_VALUE - 8) {
+                throw new IOException("File holds " + count + " values; at most " + (Integer.MAX_VALUE - 8) + " are supported.");
+            }
+            int segmentCount = (int) ((count + SEGMENT_SIZE - 1) >>> SEGMENT_SHIFT);
+            DoubleBuffer[] segments = new DoubleBuffer[segmentCount];
+            for (int i = 0; i < segmentCount; i++) {
+                long first = (long) i << SEGMENT_SHIFT;
+                long length = Math.min(SEGMENT_SIZE, count - first);
+                // The mapping stays valid after the channel is closed
+                segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, first * Double.BYTES, length * Double.BYTES)
+                        .order(ByteOrder.LITTLE_ENDIAN)
+                        .asDoubleBuffer();
+            }
+            return new MappedDataset(path, segments, (int) count);
+        }
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public double get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        return segments[index >>> SEGMENT_SHIFT].get(index & SEGMENT_MASK);
+    }
+
+    @Override
+    public void copyTo(int srcPos, double[] dest, int destPos, int length) {
+        if (srcPos < 0 || length < 0 || srcPos + length > size) {
+            throw new IndexOutOfBoundsException("Range [" + srcPos + ", " + (srcPos + length) + ") out of bounds for size " + size);
+        }
+        while (length > 0) {
+            int offset = srcPos & SEGMENT_MASK;
+            int chunk = Math.min(length, SEGMENT_SIZE - offset);
+            segments[srcPos >>> SEGMENT_SHIFT].get(offset, dest, destPos, chunk);
+            srcPos += chunk;
+            destPos += chunk;
+            length -= chunk;
+        }
+    }
+
+    // Linear scan in bulk-copied chunks; the data is read-only so no index is kept
+    @Override
+    public int indexOf(double value) {
+        long bits = Double.doubleToLongBits(value);
+        double[] chunk = new double[Math.min(SCAN_CHUNK, Math.max(size, 1))];
+        for (int from = 0; from < size; from += chunk.length) {
+            int length = Math.min(chunk.length, size - from);
+            copyTo(from, chunk, 0, length);
+            for (int i = 0; i < length; i++) {
+                if (Double.doubleToLongBits(chunk[i]) == bits) {
+                    return from + i;
+                }
+            }
+        }
+        return -1;
+    }
+
+    private DoubleArray.Summary summary() {
+        if (summary == null) {
+            summary = DoubleReductions.summarize(this);
+        }
+        return summary;
+    }
+
+    @Override
+    public double getSum() {
+        return summary().getSum();
+    }
+
+    @Override
+    public double getAverage() {
+        return summary().getAverage();
+    }
+
+    @Override
+    public double getMin() {
+        return summary().getMin();
+    }
+
+    @Override
+    public double getMax() {
+        return summary().getMax();
+    }
+
+    @Override
+    public double getVariance() {
+        return summary().getVariance();
+    }
+
+    @Override
+    public double getStandardDeviation() {
+        return Math.sqrt(getVariance());
+    }
+
+    @Override
+    public String toString() {
+        return "mapped " + path.getFileName() + " " + DisplayWindow.format(this);
+    }
+}
@@ -0,0 +1,292 @@
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.management.JMException;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
+
+// Per-operation latency histograms and counters for the array, list, queue,
+// calculator and element-wise vector operations, shared by the menus, batch
+// scripts and server clients.
+//
+//   long started = OperationMetrics.start();
+//   ... operation ...
+//   OperationMetrics.stop("array", "sum", started, elementsTouched);
+//
+// Off by default: start() is then one volatile read and stop() one comparison, and
+// nothing is allocated; the histograms are only created the first time metrics are
+// turned on ("stats on", option 6 of the main menu, JMX, or -Dcalculator.metrics=true).
+// When on, each operation also records the elements it touched and the bytes its
+// thread allocated (where the JVM can measure that).
+public class OperationMetrics {
+
+    public static final String PROPERTY = "calculator.metrics";
+    public static final String OBJECT_NAME = "DataStructureCalculator:type=OperationMetrics";
+
+    private static final long DISABLED = Long.MIN_VALUE;
+
+    private enum Operation {
+        ARRAY_RESET("array", "reset"),
+        ARRAY_DISPLAY("array", "display"),
+        ARRAY_DUMP("array", "dump"),
+        ARRAY_SUM("array", "sum"),
+        ARRAY_AVERAGE("array", "average"),
+        ARRAY_MIN("array", "min"),
+        ARRAY_MAX("array", "max"),
+        ARRAY_VARIANCE("array", "variance"),
+        ARRAY_SORT("array", "sort"),
+        ARRAY_SEARCH("array", "search"),
+        ARRAY_KTH("array", "kth"),
+        ARRAY_MEDIAN("array", "median"),
+        ARRAY_PERCENTILE("array", "percentile"),
+        ARRAY_TOP("array", "top"),
+        ARRAY_BOTTOM("array", "bottom"),
+        LIST_RESET("list", "reset"),
+        LIST_DISPLAY("list", "display"),
+        LIST_DUMP("list", "dump"),
+        LIST_ADD_FIRST("list", "addfirst"),
+        LIST_ADD_LAST("list", "addlast"),
+        LIST_ADD("list", "add"),
+        LIST_REMOVE_FIRST("list", "removefirst"),
+        LIST_REMOVE_LAST("list", "removelast"),
+        LIST_REMOVE("list", "remove"),
+        LIST_SEARCH("list", "search"),
+        QUEUE_RESET("queue", "reset"),
+        QUEUE_DISPLAY("queue", "display"),
+        QUEUE_DUMP("queue", "dump"),
+        QUEUE_ENQUEUE("queue", "enqueue"),
+        QUEUE_DEQUEUE("queue", "dequeue"),
+        QUEUE_PEEK("queue", "peek"),
+        QUEUE_SHRINK("queue", "shrink"),
+        QUEUE_ROTATE("queue", "rotate"),
+        QUEUE_CAPACITY("queue", "capacity"),
+        CALC_ADD("calc", "add"),
+        CALC_SUB("calc", "sub"),
+        CALC_MUL("calc", "mul"),
+        CALC_DIV("calc", "div"),
+        CALC_EVAL("calc", "eval"),
+        VEC_ADD("vec", "add"),
+        VEC_SUB("vec", "sub"),
+        VEC_MUL("vec", "mul"),
+        VEC_DIV("vec", "div"),
+        VEC_SCALE("vec", "scale");
+
+        private static final Operation[] VALUES = values();
+
+        private final String category;
+        private final String name;
+        private final String label;
+
+        Operation(String category, String name) {
+            this.category = category;
+            this.name = name;
+            this.label = category + " " + name;
+        }
+
+        // Null if the operation is not tracked
+        static Operation find(String category, String name) {
+            for (Operation operation : VALUES) {
+                if (operation.name.equals(name) && operation.category.equals(category)) {
+                    return operation;
+                }
+            }
+            return null;
+        }
+    }
+
+    // --- Per-Operation Counters ---
+    private static final class Counters {
+        final LatencyHistogram latency = new LatencyHistogram();
+        final AtomicLong elements = new AtomicLong();
+        final AtomicLong allocatedBytes = new AtomicLong();
+    }
+
+    private static volatile boolean enabled;
+    private static volatile Counters[] counters; // Created on first enable
+    private static com.sun.management.ThreadMXBean allocationBean; // Null if allocation is not measurable
+    private static final ThreadLocal<long[]> allocatedAtStart = ThreadLocal.withInitial(() -> new long[1]);
+    private static boolean registered;
+
+    private OperationMetrics() {
+    }
+
+    // Returns a start token for stop(); also remembers the thread's allocation so far
+    public static long start() {
+        if (!enabled) {
+            return DISABLED;
+        }
+        com.sun.management.ThreadMXBean bean = allocationBean;
+        if (bean != null) {
+            allocatedAtStart.get()[0] = bean.getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return System.nanoTime();
+    }
+
+    // Operations are named like the script commands, e.g. "queue" "enqueue"
+    public static void stop(String category, String name, long started, long elements) {
+        if (started == DISABLED) {
+            return;
+        }
+        Operation operation = Operation.find(category, name);
+        if (operation != null) {
+            record(operation, System.nanoTime() - started, elements);
+        }
+    }
+
+    private static void record(Operation operation, long elapsed, long elements) {
+        Counters c = counters[operation.ordinal()];
+        c.latency.record(elapsed);
+        c.elements.addAndGet(elements);
+        com.sun.management.ThreadMXBean bean = allocationBean;
+        if (bean != null) {
+            long allocated = bean.getThreadAllocatedBytes(Thread.currentThread().getId()) - allocatedAtStart.get()[0];
+            c.allocatedBytes.addAndGet(Math.max(allocated, 0));
+        }
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    public static synchronized void setEnabled(boolean on) {
+        if (on && counters == null) {
+            Counters[] created = new Counters[Operation.VALUES.length];
+            for (int i = 0; i < created.length; i++) {
+                created[i] = new Counters();
+            }
+            counters = created;
+            java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+            if (threads instanceof com.sun.management.ThreadMXBean) {
+                com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) threads;
+                if (bean.isThreadAllocatedMemorySupported()) {
+                    bean.setThreadAllocatedMemoryEnabled(true);
+                    allocationBean = bean;
+                }
+            }
+        }
+        enabled = on;
+    }
+
+    // Called once at startup by the long-running modes: applies -Dcalculator.metrics
+    // and makes the MBean visible, so metrics can be switched on from a JMX console.
+    // Starting the platform MBean server takes a few hundred ms, so that happens on a
+    // background thread.
+    public static void configure() {
+        if (Boolean.getBoolean(PROPERTY)) {
+            setEnabled(true);
+        }
+        Thread registration = new Thread(OperationMetrics::register, "metrics-jmx");
+        registration.setDaemon(true);
+        registration.start();
+    }
+
+    public static long getRecordedOperations() {
+        Counters[] all = counters;
+        long total = 0;
+        if (all != null) {
+            for (Counters c : all) {
+                total += c.latency.getCount();
+            }
+        }
+        return total;
+    }
+
+    public static synchronized void reset() {
+        Counters[] all = counters;
+        if (all == null) {
+            return;
+        }
+        for (Counters c : all) {
+            c.latency.clear();
+            c.elements.set(0);
+            c.allocatedBytes.set(0);
+        }
+    }
+
+    // One line per operation that ran, times in microseconds
+    public static String report() {
+        StringBuilder report = new StringBuilder();
+        if (!enabled) {
+            report.append("Metrics are off; turn them on to record operations.\n");
+        }
+        Counters[] all = counters;
+        if (all == null || getRecordedOperations() == 0) {
+            report.append("No operations recorded.");
+            return report.toString();
+        }
+        report.append(String.format("%-18s %8s %10s %10s %10s %10s %10s %12s %12s%n",
+                "Operation", "Count", "Mean us", "p50 us", "p90 us", "p99 us", "Max us", "Elements", "Alloc KB"));
+        for (Operation operation : Operation.VALUES) {
+            Counters c = all[operation.ordinal()];
+            LatencyHistogram latency = c.latency;
+            if (latency.getCount() == 0) continue;
+            report.append(String.format("%-18s %8d %10.1f %10.1f %10.1f %10.1f %10.1f %12d %12s%n",
+                    operation.label, latency.getCount(), latency.getMean() / 1e3,
+                    latency.getValueAtPercentile(50) / 1e3, latency.getValueAtPercentile(90) / 1e3,
+                    latency.getValueAtPercentile(99) / 1e3, latency.getMax() / 1e3, c.elements.get(),
+                    allocationBean != null ? String.valueOf(c.allocatedBytes.get() / 1024) : "n/a"));
+        }
+        report.setLength(report.length() - System.lineSeparator().length());
+        return report.toString();
+    }
+
+    public static String percentiles(String label) {
+        Counters[] all = counters;
+        for (Operation operation : Operation.VALUES) {
+            if (operation.label.equalsIgnoreCase(label.trim())) {
+                if (all == null) return "0 0 0 0 0";
+                LatencyHistogram latency = all[operation.ordinal()].latency;
+                return latency.getCount() + " " + latency.getValueAtPercentile(50) / 1e3 + " " + latency.getValueAtPercentile(90) / 1e3
+                        + " " + latency.getValueAtPercentile(99) / 1e3 + " " + latency.getMax() / 1e3;
+            }
+        }
+        throw new IllegalArgumentException("Unknown operation '" + label + "'.");
+    }
+
+    private static synchronized void register() {
+        if (registered) {
+            return;
+        }
+        registered = true;
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(
+                    new StandardMBean(new Bean(), OperationMetricsMBean.class), new ObjectName(OBJECT_NAME));
+        } catch (JMException e) {
+            // JMX is optional: the stats command still works
+            System.out.println("Could not register the metrics MBean: " + e.getMessage());
+        }
+    }
+
+    // --- JMX Bean Class ---
+    private static final class Bean implements OperationMetricsMBean {
+        @Override
+        public boolean isEnabled() {
+            return OperationMetrics.isEnabled();
+        }
+
+        @Override
+        public void setEnabled(boolean on) {
+            OperationMetrics.setEnabled(on);
+        }
+
+        @Override
+        public long getRecordedOperations() {
+            return OperationMetrics.getRecordedOperations();
+        }
+
+        @Override
+        public String getReport() {
+            return OperationMetrics.report();
+        }
+
+        @Override
+        public String percentiles(String operation) {
+            return OperationMetrics.percentiles(operation);
+        }
+
+        @Override
+        public void reset() {
+            OperationMetrics.reset();
+        }
+    }
+    // --- End JMX Bean Class ---
+}
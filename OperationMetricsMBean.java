@@ -0,0 +1,18 @@
+// JMX view of OperationMetrics, registered as "DataStructureCalculator:type=OperationMetrics"
+public interface OperationMetricsMBean {
+
+    boolean isEnabled();
+
+    void setEnabled(boolean enabled);
+
+    // Operations recorded since the last reset
+    long getRecordedOperations();
+
+    // The same table as the "stats" command
+    String getReport();
+
+    // "count p50 p90 p99 max" in microseconds for one operation, e.g. "array sum"
+    String percentiles(String operation);
+
+    void reset();
+}
@@ -0,0 +1,208 @@
+import java.util.Arrays;
+
+// k-th smallest, median, percentiles and top/bottom-k of any DoubleSource, without
+// sorting, copying or reordering it. Values are ordered like Double.compare (and so
+// like DoubleArray.sort): -0.0 before 0.0, NaN last.
+//
+// Selection is a radix select: each value maps to a 64-bit key that sorts like the
+// value, and up to four counting passes over the data narrow the key down 16 bits at
+// a time, so finding the k-th value is O(n) whatever the distribution. Top/bottom-k
+// keep a bounded binary heap of k values: O(n log k). A sorted DoubleArray answers
+// directly by position. Small datasets are copied and sorted instead: each radix pass
+// also clears and scans 65536 buckets, which dwarfs sorting a few thousand values.
+public class OrderStatistics {
+
+    private static final int RADIX_BITS = 16;
+    private static final int BUCKETS = 1 << RADIX_BITS;
+    private static final int CHUNK = 4096;
+    private static final int SORT_THRESHOLD = 2048; // Below this, sorting a copy beats the radix passes
+
+    private OrderStatistics() {
+    }
+
+    // k is 0-based: 0 gives the minimum, size - 1 the maximum
+    public static double select(DoubleSource source, int k) {
+        int n = source.size();
+        if (k < 0 || k >= n) {
+            throw new IndexOutOfBoundsException("Rank: " + k + ", Size: " + n);
+        }
+        if (isSorted(source)) {
+            return source.get(k);
+        }
+        if (n <= SORT_THRESHOLD) {
+            return sortedCopy(source)[k];
+        }
+        int[] counts = new int[BUCKETS];
+        double[] chunk = new double[Math.min(CHUNK, n)];
+        long prefix = 0;
+        for (int shift = 64 - RADIX_BITS; shift >= 0; shift -= RADIX_BITS) {
+            Arrays.fill(counts, 0);
+            int prefixShift = shift + RADIX_BITS;
+            for (int from = 0; from < n; from += chunk.length) {
+                int length = Math.min(chunk.length, n - from);
+                source.copyTo(from, chunk, 0, length);
+                for (int i = 0; i < length; i++) {
+                    long key = key(chunk[i]);
+                    if (prefixShift == 64 || key >>> prefixShift == prefix) {
+                        counts[(int) (key >>> shift) & (BUCKETS - 1)]++;
+                    }
+                }
+            }
+            int bucket = 0;
+            while (k >= counts[bucket]) {
+                k -= counts[bucket];
+                bucket++;
+            }
+            prefix = (prefix << RADIX_BITS) | bucket;
+            if (counts[bucket] == 1 && shift > 0) {
+                return findUnique(source, prefix, shift, chunk);
+            }
+        }
+        return value(prefix);
+    }
+
+    public static double median(DoubleSource source) {
+        return percentile(source, 50.0);
+    }
+
+    // Linear interpolation between the two closest ranks (the same rule as NumPy's default)
+    public static double percentile(DoubleSource source, double percent) {
+        if (source.isEmpty()) {
+            throw new IllegalArgumentException("Dataset is empty.");
+        }
+        if (!(percent >= 0.0 && percent <= 100.0)) {
+            throw new IllegalArgumentException("Percentile must be between 0 and 100.");
+        }
+        double position = percent / 100.0 * (source.size() - 1);
+        int lower = (int) Math.floor(position);
+        double fraction = position - lower;
+        if (source.size() <= SORT_THRESHOLD && !isSorted(source)) {
+            // One sort serves both ranks
+            double[] sorted = sortedCopy(source);
+            double low = sorted[lower];
+            return fraction == 0.0 ? low : low + (sorted[lower + 1] - low) * fraction;
+        }
+        double low = select(source, lower);
+        if (fraction == 0.0) {
+            return low;
+        }
+        double high = select(source, lower + 1);
+        return low + (high - low) * fraction;
+    }
+
+    // The k largest values, largest first
+    public static double[] top(DoubleSource source, int k) {
+        return extremes(source, k, true);
+    }
+
+    // The k smallest values, smallest first
+    public static double[] bottom(DoubleSource source, int k) {
+        return extremes(source, k, false);
+    }
+
+    private static double[] extremes(DoubleSource source, int k, boolean largest) {
+        int n = source.size();
+        k = Math.max(0, Math.min(k, n));
+        double[] result = new double[k];
+        if (k == 0) {
+            return result;
+        }
+        if (isSorted(source)) {
+            for (int i = 0; i < k; i++) {
+                result[i] = source.get(largest ? n - 1 - i : i);
+            }
+            return result;
+        }
+        // Heap whose root is the value that leaves first: the smallest kept when
+        // collecting the largest values and vice versa
+        int sign = largest ? 1 : -1;
+        double[] heap = new double[k];
+        int heapSize = 0;
+        double[] chunk = new double[Math.min(CHUNK, n)];
+        for (int from = 0; from < n; from += chunk.length) {
+            int length = Math.min(chunk.length, n - from);
+            source.copyTo(from, chunk, 0, length);
+            for (int i = 0; i < length; i++) {
+                double value = chunk[i];
+                if (heapSize < k) {
+                    heap[heapSize] = value;
+                    siftUp(heap, heapSize++, sign);
+                } else if (sign * Double.compare(value, heap[0]) > 0) {
+                    heap[0] = value;
+                    siftDown(heap, heapSize, sign);
+                }
+            }
+        }
+        // Pop the root repeatedly: fills result from the back in the requested order
+        for (int i = k - 1; i >= 0; i--) {
+            result[i] = heap[0];
+            heap[0] = heap[--heapSize];
+            siftDown(heap, heapSize, sign);
+        }
+        return result;
+    }
+
+    private static void siftUp(double[] heap, int index, int sign) {
+        double value = heap[index];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (sign * Double.compare(value, heap[parent]) >= 0) break;
+            heap[index] = heap[parent];
+            index = parent;
+        }
+        heap[index] = value;
+    }
+
+    private static void siftDown(double[] heap, int size, int sign) {
+        if (size == 0) return;
+        double value = heap[0];
+        int index = 0;
+        int half = size >>> 1;
+        while (index < half) {
+            int child = 2 * index + 1;
+            if (child + 1 < size && sign * Double.compare(heap[child + 1], heap[child]) < 0) child++;
+            if (sign * Double.compare(heap[child], value) >= 0) break;
+            heap[index] = heap[child];
+            index = child;
+        }
+        heap[index] = value;
+    }
+
+    // The only value whose key starts with prefix (the top 64 - shift bits)
+    private static double findUnique(DoubleSource source, long prefix, int shift, double[] chunk) {
+        int n = source.size();
+        for (int from = 0; from < n; from += chunk.length) {
+            int length = Math.min(chunk.length, n - from);
+            source.copyTo(from, chunk, 0, length);
+            for (int i = 0; i < length; i++) {
+                if (key(chunk[i]) >>> shift == prefix) {
+                    return chunk[i];
+                }
+            }
+        }
+        throw new IllegalStateException("Dataset changed during selection.");
+    }
+
+    // Arrays.sort orders doubles like Double.compare, the same as the radix keys
+    private static double[] sortedCopy(DoubleSource source) {
+        double[] copy = new double[source.size()];
+        source.copyTo(0, copy, 0, copy.length);
+        Arrays.sort(copy);
+        return copy;
+    }
+
+    private static boolean isSorted(DoubleSource source) {
+        return source instanceof DoubleArray && ((DoubleArray) source).isSorted();
+    }
+
+    // Unsigned order of the key matches Double.compare order of the value
+    private static long key(double value) {
+        long bits = Double.doubleToLongBits(value);
+        return bits ^ ((bits >> 63) | Long.MIN_VALUE);
+    }
+
+    private static double value(long key) {
+        long bits = key < 0 ? key ^ Long.MIN_VALUE : ~key;
+        return Double.longBitsToDouble(bits);
+    }
+}
@@ -0,0 +1,123 @@
+// Count, sum, mean, variance, min and max kept up to date as values are added and
+// removed, so aggregate queries never rescan the data. The sum is Neumaier
+// compensated like DoubleReductions; mean and variance use Welford's update (and
+// its inverse on removal). Removing the current min or max
+// only marks it stale; the owner rescans its values the next time it is asked for.
+public class RunningStats {
+
+    private long count;
+    private double sum;
+    private double sumCompensation;
+    private double mean;
+    private double m2; // Sum of squared distances from the mean
+    private double min = Double.NaN;
+    private double max = Double.NaN;
+    private boolean extremesStale;
+
+    public RunningStats() {
+    }
+
+    public RunningStats(RunningStats other) {
+        count = other.count;
+        sum = other.sum;
+        sumCompensation = other.sumCompensation;
+        mean = other.mean;
+        m2 = other.m2;
+        min = other.min;
+        max = other.max;
+        extremesStale = other.extremesStale;
+    }
+
+    public void add(double value) {
+        count++;
+        addToSum(value);
+        double delta = value - mean;
+        mean += delta / count;
+        m2 += delta * (value - mean);
+        if (count == 1) {
+            min = value;
+            max = value;
+        } else if (!extremesStale) {
+            if (value < min) min = value;
+            if (value > max) max = value;
+        }
+    }
+
+    public void remove(double value) {
+        if (count <= 1) {
+            clear();
+            return;
+        }
+        count--;
+        addToSum(-value);
+        double delta = value - mean;
+        mean -= delta / count;
+        m2 -= delta * (value - mean);
+        if (m2 < 0) m2 = 0; // Guard against rounding drift
+        if (value == min || value == max) {
+            extremesStale = true;
+        }
+    }
+
+    private void addToSum(double value) {
+        double t = sum + value;
+        sumCompensation += Math.abs(sum) >= Math.abs(value) ? (sum - t) + value : (value - t) + sum;
+        sum = t;
+    }
+
+    public void replace(double oldValue, double newValue) {
+        remove(oldValue);
+        add(newValue);
+    }
+
+    public void clear() {
+        count = 0;
+        sum = 0.0;
+        sumCompensation = 0.0;
+        mean = 0.0;
+        m2 = 0.0;
+        min = Double.NaN;
+        max = Double.NaN;
+        extremesStale = false;
+    }
+
+    // True when min/max must be recomputed with setExtremes() before they are read
+    public boolean isExtremesStale() {
+        return extremesStale;
+    }
+
+    public void setExtremes(double min, double max) {
+        this.min = min;
+        this.max = max;
+        extremesStale = false;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getSum() {
+        return sum + sumCompensation;
+    }
+
+    public double getMean() {
+        return count == 0 ? 0.0 : mean;
+    }
+
+    // Population variance
+    public double getVariance() {
+        return count == 0 ? 0.0 : m2 / count;
+    }
+
+    public double getStandardDeviation() {
+        return Math.sqrt(getVariance());
+    }
+
+    public double getMin() {
+        return min;
+    }
+
+    public double getMax() {
+        return max;
+    }
+}
@@ -0,0 +1,245 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Throughput test for CalculatorServer with many concurrent clients.
+//
+//   java ServerLoadTest [--clients 128] [--time ms] [--preload n] [--port p]
+//
+// Without --port an in-process server on a free port is started. Every client opens
+// its own connection and, until the time is up, sends a mix of writes to the shared
+// dataset (load, calc ... store) and reads (calc on #i, array reset/sum/search).
+// Reports total commands/sec, latency percentiles and the final dataset size, and
+// checks that no command failed and every accepted write is in the dataset.
+public class ServerLoadTest {
+
+    private static final int DEFAULT_CLIENTS = 128;
+    private static final long DEFAULT_TIME_MILLIS = 5000;
+    private static final int DEFAULT_PRELOAD = 10_000;
+    private static final int MAX_SAMPLES_PER_CLIENT = 1 << 16;
+
+    public static void main(String[] args) throws Exception {
+        int clients = DEFAULT_CLIENTS;
+        long timeMillis = DEFAULT_TIME_MILLIS;
+        int preload = DEFAULT_PRELOAD;
+        int port = -1;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--clients":
+                    clients = Integer.parseInt(args[i + 1]);
+                    break;
+                case "--time":
+                    timeMillis = Long.parseLong(args[i + 1]);
+                    break;
+                case "--preload":
+                    preload = Integer.parseInt(args[i + 1]);
+                    break;
+                case "--port":
+                    port = Integer.parseInt(args[i + 1]);
+                    break;
+                default:
+                    System.out.println("Unknown option " + args[i]);
+                    return;
+            }
+        }
+
+        CalculatorServer server = null;
+        if (port < 0) {
+            server = new CalculatorServer(new SharedDataset(), 0);
+            port = server.getPort();
+            CalculatorServer started = server;
+            Thread acceptor = new Thread(() -> {
+                try {
+                    started.serve();
+                } catch (IOException e) {
+                    System.out.println("Server stopped: " + e.getMessage());
+                }
+            }, "server-accept");
+            acceptor.setDaemon(true);
+            acceptor.start();
+        }
+
+        try {
+            run(port, clients, timeMillis, preload);
+        } finally {
+            if (server != null) server.close();
+        }
+    }
+
+    private static void run(int port, int clients, long timeMillis, int preload) throws Exception {
+        long baseSize;
+        try (Connection setup = new Connection(port)) {
+            StringBuilder load = new StringBuilder("load");
+            Random random = new Random(1);
+            for (int i = 0; i < preload; i++) {
+                load.append(' ').append(random.nextInt(1000));
+            }
+            if (preload > 0) {
+                setup.send(load.toString());
+            }
+            baseSize = sizeOf(setup.send("show"));
+        }
+
+        AtomicLong commands = new AtomicLong();
+        AtomicLong writes = new AtomicLong();
+        AtomicLong failures = new AtomicLong();
+        long[][] latencies = new long[clients][];
+        int[] sampleCounts = new int[clients];
+        CountDownLatch ready = new CountDownLatch(clients);
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] threads = new Thread[clients];
+        long[] deadline = new long[1];
+
+        for (int c = 0; c < clients; c++) {
+            final int client = c;
+            threads[c] = new Thread(() -> {
+                long[] samples = new long[MAX_SAMPLES_PER_CLIENT];
+                int count = 0;
+                Random random = new Random(client);
+                try (Connection connection = new Connection(port)) {
+                    connection.send("array reset");
+                    ready.countDown();
+                    start.await();
+                    while (System.nanoTime() < deadline[0]) {
+                        String command;
+                        boolean write = false;
+                        switch (random.nextInt(5)) {
+                            case 0:
+                                command = "load " + random.nextInt(1000);
+                                write = true;
+                                break;
+                            case 1:
+                                command = "calc add #" + random.nextInt((int) baseSize) + " 1 store";
+                                write = true;
+                                break;
+                            case 2:
+                                command = "calc mul #" + random.nextInt((int) baseSize) + " 2";
+                                break;
+                            case 3:
+                                command = "array sum";
+                                break;
+                            default:
+                                command = "array search " + random.nextInt(1000);
+                        }
+                        long begin = System.nanoTime();
+                        String response = connection.send(command);
+                        long elapsed = System.nanoTime() - begin;
+                        if (response.startsWith("Line ")) {
+                            failures.incrementAndGet();
+                        } else if (write) {
+                            writes.incrementAndGet();
+                        }
+                        commands.incrementAndGet();
+                        if (count < samples.length) samples[count++] = elapsed;
+                    }
+                } catch (IOException | InterruptedException e) {
+                    failures.incrementAndGet();
+                    ready.countDown();
+                }
+                latencies[client] = samples;
+                sampleCounts[client] = count;
+            }, "client-" + c);
+            threads[c].start();
+        }
+
+        ready.await();
+        long begin = System.nanoTime();
+        deadline[0] = begin + timeMillis * 1_000_000L;
+        start.countDown();
+        for (Thread thread : threads) thread.join();
+        long elapsed = System.nanoTime() - begin;
+
+        long finalSize;
+        try (Connection check = new Connection(port)) {
+            finalSize = sizeOf(check.send("show"));
+        }
+
+        int total = 0;
+        for (int count : sampleCounts) total += count;
+        long[] all = new long[total];
+        int offset = 0;
+        for (int c = 0; c < clients; c++) {
+            System.arraycopy(latencies[c], 0, all, offset, sampleCounts[c]);
+            offset += sampleCounts[c];
+        }
+        Arrays.sort(all);
+
+        System.out.printf("Clients: %d, commands: %d, failures: %d, %.0f commands/sec%n",
+                clients, commands.get(), failures.get(), commands.get() * 1e9 / elapsed);
+        System.out.printf("Latency (us): p50 %.1f, p90 %.1f, p99 %.1f, max %.1f%n",
+                percentile(all, 0.50) / 1e3, percentile(all, 0.90) / 1e3, percentile(all, 0.99) / 1e3, percentile(all, 1.0) / 1e3);
+        long expected = baseSize + writes.get();
+        System.out.println("Dataset size: " + finalSize + " (expected " + expected + ")"
+                + (finalSize == expected && failures.get() == 0 ? " - OK" : " - MISMATCH"));
+    }
+
+    private static double percentile(long[] sorted, double fraction) {
+        if (sorted.length == 0) return 0;
+        int index = (int) Math.min(sorted.length - 1, Math.ceil(fraction * sorted.length) - 1);
+        return sorted[Math.max(index, 0)];
+    }
+
+    // Reads the count out of "Initial numbers: [...] (n values)", or counts a short list
+    private static long sizeOf(String shown) {
+        int marker = shown.lastIndexOf(" values)");
+        if (marker >= 0) {
+            return Long.parseLong(shown.substring(shown.lastIndexOf('(', marker) + 1, marker));
+        }
+        int open = shown.indexOf('[');
+        int close = shown.lastIndexOf(']');
+        String inner = shown.substring(open + 1, close).trim();
+        return inner.isEmpty() ? 0 : inner.split(",").length;
+    }
+
+    // --- Client Connection Class ---
+    private static final class Connection implements AutoCloseable {
+        private final Socket socket;
+        private final BufferedReader in;
+        private final PrintWriter out;
+
+        Connection(int port) throws IOException {
+            socket = new Socket("127.0.0.1", port);
+            socket.setTcpNoDelay(true);
+            in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            out = new PrintWriter(new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8)), false);
+            readResponse(); // Greeting
+        }
+
+        // Sends one command and returns its response lines joined with '\n'
+        String send(String command) throws IOException {
+            out.println(command);
+            out.flush();
+            return readResponse();
+        }
+
+        private String readResponse() throws IOException {
+            StringBuilder response = new StringBuilder();
+            String line;
+            while ((line = in.readLine()) != null && !line.equals(CalculatorServer.END_OF_RESPONSE)) {
+                if (response.length() > 0) response.append('\n');
+                response.append(line);
+            }
+            if (line == null) {
+                throw new IOException("Server closed the connection.");
+            }
+            return response.toString();
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.println("quit");
+            out.flush();
+            socket.close();
+        }
+    }
+    // --- End Client Connection Class ---
+}
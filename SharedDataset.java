@@ -0,0 +1,240 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+// The inputs shared by every session of the server (and by a batch script).
+// Readers take an immutable Snapshot without any locking; writers serialize on a
+// lock and publish a new snapshot through a volatile field, so a reader never
+// waits for a writer and never sees a half-applied change.
+//
+// Appends write past the end of the current snapshot into the same backing array,
+// which existing snapshots never read, so they cost O(1) amortized instead of a
+// full copy; clear and replace start a fresh array.
+//
+// With a DatasetStore every change is logged before it is published, under the
+// same lock, so the log order is the order readers saw.
+public class SharedDataset {
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private final Object writeLock = new Object();
+    private volatile Snapshot current = new Snapshot(new double[DEFAULT_CAPACITY], 0, new RunningStats());
+    private final RunningStats stats = new RunningStats(); // Writer's copy, guarded by writeLock
+    private final DatasetStore store; // Null unless persisted
+
+    public SharedDataset() {
+        this.store = null;
+    }
+
+    // Starts from the values the store recovered and logs every change to it
+    public SharedDataset(DatasetStore store) {
+        this.store = store;
+        replaceAll(store.recoveredValues(), store.getRecoveredCount(), false);
+        store.releaseRecovered();
+    }
+
+    public Snapshot snapshot() {
+        return current;
+    }
+
+    public int size() {
+        return current.size;
+    }
+
+    public void add(double value) {
+        synchronized (writeLock) {
+            double[] data = reserve(1);
+            int size = current.size;
+            data[size] = value;
+            if (store != null) {
+                try {
+                    store.append(value);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+            stats.add(value);
+            current = new Snapshot(data, size + 1, new RunningStats(stats));
+            compactIfNeeded();
+        }
+    }
+
+    public void addAll(double[] values, int from, int to) {
+        synchronized (writeLock) {
+            double[] data = reserve(to - from);
+            int size = current.size;
+            System.arraycopy(values, from, data, size, to - from);
+            if (store != null) {
+                try {
+                    store.appendAll(values, from, to);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+            for (int i = from; i < to; i++) {
+                stats.add(values[i]);
+            }
+            current = new Snapshot(data, size + to - from, new RunningStats(stats));
+            compactIfNeeded();
+        }
+    }
+
+    // Takes ownership of values (no copy)
+    public void replaceAll(double[] values, int count) {
+        replaceAll(values, count, true);
+    }
+
+    private void replaceAll(double[] values, int count, boolean persist) {
+        if (count < 0 || count > values.length) {
+            throw new IndexOutOfBoundsException("Count: " + count + ", Length: " + values.length);
+        }
+        synchronized (writeLock) {
+            stats.clear();
+            for (int i = 0; i < count; i++) {
+                stats.add(values[i]);
+            }
+            Snapshot replaced = new Snapshot(values, count, new RunningStats(stats));
+            if (persist && store != null) {
+                try {
+                    store.replaceAll(replaced);
+                } catch (IOException e) {
+                    stats.clear(); // Back to the unchanged contents
+                    for (int i = 0; i < current.size; i++) {
+                        stats.add(current.data[i]);
+                    }
+                    throw new UncheckedIOException(e);
+                }
+            }
+            current = replaced;
+        }
+    }
+
+    public void clear() {
+        synchronized (writeLock) {
+            if (store != null) {
+                try {
+                    store.clear();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+            stats.clear();
+            current = new Snapshot(new double[DEFAULT_CAPACITY], 0, new RunningStats());
+        }
+    }
+
+    // Called with writeLock held, after publishing
+    private void compactIfNeeded() {
+        if (store != null) {
+            try {
+                store.maybeCompact(current);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    // Backing array with room for extra more values past the current size
+    private double[] reserve(int extra) {
+        Snapshot snapshot = current;
+        double[] data = snapshot.data;
+        if (snapshot.size + extra > data.length) {
+            int newCapacity = Math.max(data.length + (data.length >> 1), snapshot.size + extra);
+            double[] grown = new double[newCapacity];
+            System.arraycopy(data, 0, grown, 0, snapshot.size);
+            data = grown;
+        }
+        return data;
+    }
+
+    @Override
+    public String toString() {
+        return current.toString();
+    }
+
+    // --- Snapshot Class ---
+    // Immutable view of the first size values; the statistics were computed when it was published
+    public static final class Snapshot implements DoubleSource {
+        private final double[] data;
+        private final int size;
+        private final RunningStats stats;
+
+        private Snapshot(double[] data, int size, RunningStats stats) {
+            this.data = data;
+            this.size = size;
+            this.stats = stats;
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public double get(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+            }
+            return data[index];
+        }
+
+        @Override
+        public void copyTo(int srcPos, double[] dest, int destPos, int length) {
+            if (srcPos < 0 || length < 0 || srcPos + length > size) {
+                throw new IndexOutOfBoundsException("Range [" + srcPos + ", " + (srcPos + length) + ") out of bounds for size " + size);
+            }
+            System.arraycopy(data, srcPos, dest, destPos, length);
+        }
+
+        @Override
+        public int indexOf(double value) {
+            long bits = Double.doubleToLongBits(value);
+            for (int i = 0; i < size; i++) {
+                if (Double.doubleToLongBits(data[i]) == bits) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        @Override
+        public double getSum() {
+            return stats.getSum();
+        }
+
+        @Override
+        public double getAverage() {
+            return stats.getMean();
+        }
+
+        @Override
+        public double getMin() {
+            return stats.getMin();
+        }
+
+        @Override
+        public double getMax() {
+            return stats.getMax();
+        }
+
+        @Override
+        public double getVariance() {
+            return stats.getVariance();
+        }
+
+        @Override
+        public double getStandardDeviation() {
+            return stats.getStandardDeviation();
+        }
+
+        // Mutable working copy in O(1); it copies the values before its first write
+        public DoubleArray toDoubleArray() {
+            return DoubleArray.sharing(data, size, new RunningStats(stats));
+        }
+
+        @Override
+        public String toString() {
+            return DisplayWindow.format(this);
+        }
+    }
+    // --- End Snapshot Class ---
+}
@@ -0,0 +1,198 @@
+import java.io.BufferedWriter;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.util.InputMismatchException;
+import java.util.NoSuchElementException;
+
+// Streaming mode for DataStructureCalculator ("--stream [file]"). Consumes an
+// unbounded stream of numbers without storing it: count, sum, mean, variance,
+// min and max are exact (RunningStats), quantiles come from a KLL sketch and the
+// distinct count from HyperLogLog, so memory stays in the tens of kilobytes.
+//
+// Numbers and queries can be mixed freely in the input, separated by whitespace;
+// each query is answered right away from the values seen so far:
+//   count | sum | mean | variance | stddev | min | max | distinct
+//   median | quantile q (0 to 1) | percentile p (0 to 100)
+//   summary                   all of the above plus p90 and p99
+//   reset                     forget everything seen so far
+// A summary is printed when the input ends.
+public class StreamAnalyzer {
+
+    private static final int OUTPUT_BUFFER_SIZE = 1 << 13;
+
+    private final RunningStats stats = new RunningStats();
+    private final KllSketch quantiles = new KllSketch();
+    private final HyperLogLog distinct = new HyperLogLog();
+    private long skipped; // NaN values, which have no place in an ordering or a mean
+
+    public void add(double value) {
+        if (Double.isNaN(value)) {
+            skipped++;
+            return;
+        }
+        stats.add(value);
+        quantiles.add(value);
+        distinct.add(value);
+    }
+
+    public long getCount() {
+        return stats.getCount();
+    }
+
+    public double getSum() {
+        return stats.getSum();
+    }
+
+    public double getMean() {
+        return stats.getMean();
+    }
+
+    public double getVariance() {
+        return stats.getVariance();
+    }
+
+    public double getStandardDeviation() {
+        return stats.getStandardDeviation();
+    }
+
+    public double getMin() {
+        return stats.getMin();
+    }
+
+    public double getMax() {
+        return stats.getMax();
+    }
+
+    // Approximate: within about 1% in rank
+    public double getQuantile(double fraction) {
+        return quantiles.quantile(fraction);
+    }
+
+    // Approximate: about 0.8% standard error
+    public long getDistinctCount() {
+        return distinct.estimate();
+    }
+
+    public void clear() {
+        stats.clear();
+        quantiles.clear();
+        distinct.clear();
+        skipped = 0;
+    }
+
+    // Entry point used by DataStructureCalculator.main for "--stream [file]"
+    public static void runStream(String path) {
+        PrintWriter out = new PrintWriter(new BufferedWriter(new OutputStreamWriter(System.out), OUTPUT_BUFFER_SIZE), false);
+        StreamAnalyzer analyzer = new StreamAnalyzer();
+        try (InputStream in = (path == null || path.equals("-")) ? System.in : new FileInputStream(path)) {
+            analyzer.run(new ConsoleReader(in), out);
+        } catch (IOException e) {
+            out.println("Error reading stream: " + e.getMessage());
+        } finally {
+            out.flush();
+        }
+    }
+
+    public void run(ConsoleReader in, PrintWriter out) {
+        while (in.hasNext()) {
+            double value;
+            try {
+                value = in.nextDouble();
+            } catch (InputMismatchException e) {
+                try {
+                    query(in.lastToken().toLowerCase(), in, out);
+                } catch (IllegalArgumentException | NoSuchElementException queryError) {
+                    out.println("Error: " + queryError.getMessage());
+                }
+                out.flush(); // Answers show up while the stream is still running
+                continue;
+            }
+            add(value);
+        }
+        printSummary(out);
+    }
+
+    private void query(String word, ConsoleReader in, PrintWriter out) {
+        switch (word) {
+            case "count":
+                out.println("Count: " + getCount());
+                break;
+            case "sum":
+                out.println("Sum: " + getSum());
+                break;
+            case "mean":
+                out.println("Mean: " + getMean());
+                break;
+            case "variance":
+                out.println("Variance: " + String.format("%.4f", getVariance()));
+                break;
+            case "stddev":
+                out.println("Standard deviation: " + String.format("%.4f", getStandardDeviation()));
+                break;
+            case "min":
+                out.println("Minimum: " + getMin());
+                break;
+            case "max":
+                out.println("Maximum: " + getMax());
+                break;
+            case "distinct":
+                out.println("Distinct values (approx.): " + getDistinctCount());
+                break;
+            case "median":
+                out.println("Median (approx.): " + getQuantile(0.5));
+                break;
+            case "quantile": {
+                double fraction = argument(in, word);
+                if (!(fraction >= 0.0 && fraction <= 1.0)) {
+                    throw new IllegalArgumentException("Quantile must be between 0 and 1.");
+                }
+                out.println("Quantile " + fraction + " (approx.): " + getQuantile(fraction));
+                break;
+            }
+            case "percentile": {
+                double percent = argument(in, word);
+                if (!(percent >= 0.0 && percent <= 100.0)) {
+                    throw new IllegalArgumentException("Percentile must be between 0 and 100.");
+                }
+                out.println(percent + "th percentile (approx.): " + getQuantile(percent / 100.0));
+                break;
+            }
+            case "summary":
+                printSummary(out);
+                break;
+            case "reset":
+                clear();
+                out.println("Stream statistics reset.");
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown query '" + word + "'.");
+        }
+    }
+
+    private static double argument(ConsoleReader in, String word) {
+        if (!in.hasNext()) {
+            throw new IllegalArgumentException("Missing argument for '" + word + "'.");
+        }
+        try {
+            return in.nextDouble();
+        } catch (InputMismatchException e) {
+            throw new IllegalArgumentException("Invalid number '" + in.lastToken() + "' for '" + word + "'.");
+        }
+    }
+
+    public void printSummary(PrintWriter out) {
+        out.println("Count: " + getCount() + (skipped > 0 ? " (" + skipped + " NaN skipped)" : ""));
+        if (getCount() == 0) {
+            return;
+        }
+        out.println("Sum: " + getSum() + ", mean: " + getMean()
+                + ", variance: " + String.format("%.4f", getVariance())
+                + ", standard deviation: " + String.format("%.4f", getStandardDeviation()));
+        out.println("Minimum: " + getMin() + ", maximum: " + getMax());
+        out.println("Median: " + getQuantile(0.5) + ", p90: " + getQuantile(0.9) + ", p99: " + getQuantile(0.99) + " (approx.)");
+        out.println("Distinct values: " + getDistinctCount() + " (approx.)");
+    }
+}
@@ -0,0 +1,179 @@
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+// Element-wise arithmetic over whole datasets: A + B, A - B, A * B, A / B and
+// A * scalar. Operands are any DoubleSource (in-memory or mapped); they are read in
+// cache-sized chunks into plain double[] buffers, so the inner loops are simple
+// counted loops over arrays that the JIT compiles to SIMD instructions. Large
+// datasets are split across the common fork/join pool.
+//
+// Division by zero does not abort: those elements become NaN (0/0, x/0 and
+// -x/0 alike), and the result reports how many there were.
+public class VectorMath {
+
+    private static final int CHUNK = 4096; // Two operand chunks and the output stay in L1/L2
+    private static final int PARALLEL_THRESHOLD = 1 << 18; // Smaller datasets are not worth splitting
+    private static final int TASK_SIZE = 1 << 16;
+
+    public enum Operator {
+        ADD("+"), SUBTRACT("-"), MULTIPLY("*"), DIVIDE("/");
+
+        private final String symbol;
+
+        Operator(String symbol) {
+            this.symbol = symbol;
+        }
+
+        public String getSymbol() {
+            return symbol;
+        }
+    }
+
+    private VectorMath() {
+    }
+
+    // --- Result Class ---
+    public static final class Result {
+        private final double[] values;
+        private final long divisionsByZero;
+
+        private Result(double[] values, long divisionsByZero) {
+            this.values = values;
+            this.divisionsByZero = divisionsByZero;
+        }
+
+        public double[] getValues() {
+            return values;
+        }
+
+        // Elements set to NaN because the divisor was zero
+        public long getDivisionsByZero() {
+            return divisionsByZero;
+        }
+    }
+    // --- End Result Class ---
+
+    public static Result apply(Operator operator, DoubleSource a, DoubleSource b) {
+        if (a.size() != b.size()) {
+            throw new IllegalArgumentException("Datasets differ in length: " + a.size() + " and " + b.size() + ".");
+        }
+        double[] out = new double[a.size()];
+        long zeros = run(new Task(operator, a, b, 0.0, out, 0, out.length));
+        return new Result(out, zeros);
+    }
+
+    public static double[] scale(DoubleSource a, double factor) {
+        double[] out = new double[a.size()];
+        run(new Task(null, a, null, factor, out, 0, out.length));
+        return out;
+    }
+
+    private static long run(Task task) {
+        if (task.to - task.from < PARALLEL_THRESHOLD) {
+            return task.compute();
+        }
+        return ForkJoinPool.commonPool().invoke(task);
+    }
+
+    // --- Fork/Join Task Class ---
+    // Computes out[from, to); operator null means a * factor. Returns the zero divisors met.
+    private static final class Task extends RecursiveTask<Long> {
+        private static final long serialVersionUID = 1L;
+
+        private final Operator operator;
+        private final DoubleSource a;
+        private final DoubleSource b;
+        private final double factor;
+        private final double[] out;
+        private final int from;
+        private final int to;
+
+        Task(Operator operator, DoubleSource a, DoubleSource b, double factor, double[] out, int from, int to) {
+            this.operator = operator;
+            this.a = a;
+            this.b = b;
+            this.factor = factor;
+            this.out = out;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Long compute() {
+            if (to - from > TASK_SIZE) {
+                int middle = (from + to) >>> 1;
+                Task left = new Task(operator, a, b, factor, out, from, middle);
+                left.fork();
+                long right = new Task(operator, a, b, factor, out, middle, to).compute();
+                return left.join() + right;
+            }
+            double[] x = new double[Math.min(CHUNK, to - from)];
+            double[] y = operator != null ? new double[x.length] : null;
+            long zeros = 0;
+            for (int start = from; start < to; start += x.length) {
+                int length = Math.min(x.length, to - start);
+                a.copyTo(start, x, 0, length);
+                if (operator == null) {
+                    scaleChunk(x, factor, out, start, length);
+                    continue;
+                }
+                b.copyTo(start, y, 0, length);
+                switch (operator) {
+                    case ADD:
+                        addChunk(x, y, out, start, length);
+                        break;
+                    case SUBTRACT:
+                        subtractChunk(x, y, out, start, length);
+                        break;
+                    case MULTIPLY:
+                        multiplyChunk(x, y, out, start, length);
+                        break;
+                    default:
+                        zeros += divideChunk(x, y, out, start, length);
+                }
+            }
+            return zeros;
+        }
+    }
+    // --- End Fork/Join Task Class ---
+
+    // One loop per operator, without branches, so each one vectorizes
+    private static void addChunk(double[] x, double[] y, double[] out, int offset, int length) {
+        for (int i = 0; i < length; i++) {
+            out[offset + i] = x[i] + y[i];
+        }
+    }
+
+    private static void subtractChunk(double[] x, double[] y, double[] out, int offset, int length) {
+        for (int i = 0; i < length; i++) {
+            out[offset + i] = x[i] - y[i];
+        }
+    }
+
+    private static void multiplyChunk(double[] x, double[] y, double[] out, int offset, int length) {
+        for (int i = 0; i < length; i++) {
+            out[offset + i] = x[i] * y[i];
+        }
+    }
+
+    private static void scaleChunk(double[] x, double factor, double[] out, int offset, int length) {
+        for (int i = 0; i < length; i++) {
+            out[offset + i] = x[i] * factor;
+        }
+    }
+
+    // Divides in a branch-free loop, then masks the zero divisors with NaN
+    private static long divideChunk(double[] x, double[] y, double[] out, int offset, int length) {
+        for (int i = 0; i < length; i++) {
+            out[offset + i] = x[i] / y[i];
+        }
+        long zeros = 0;
+        for (int i = 0; i < length; i++) {
+            if (y[i] == 0.0) {
+                out[offset + i] = Double.NaN;
+                zeros++;
+            }
+        }
+        return zeros;
+    }
+}